@@ -0,0 +1,22 @@
+package com.luck.lib.camerax;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageProxy;
+
+import com.luck.lib.camerax.utils.FrameAnalysisStats;
+
+/**
+ * @describe：相机预览帧分析，如二维码识别、模糊检测
+ * <p>
+ * 在独立的子线程中回调，分析期间到达的帧只保留最新的一帧；
+ * 回调返回后image会被关闭，需要异步处理时请先复制数据
+ */
+public interface CameraFrameAnalyzer {
+    /**
+     * 分析一帧
+     *
+     * @param image 预览帧
+     * @param stats 到目前为止的分析耗时统计
+     */
+    void analyze(@NonNull ImageProxy image, @NonNull FrameAnalysisStats stats);
+}
@@ -22,6 +22,21 @@ public final class CustomCameraConfig {
     public static final int BUTTON_STATE_ONLY_RECORDER = 2;
 
 
+    /**
+     * 拍照优先速度
+     */
+    public static final int CAPTURE_MODE_MINIMIZE_LATENCY = 0;
+
+    /**
+     * 拍照优先质量
+     */
+    public static final int CAPTURE_MODE_MAXIMIZE_QUALITY = 1;
+
+    /**
+     * 零延时拍照，当前CameraX版本不支持时按{@link #CAPTURE_MODE_MINIMIZE_LATENCY}处理
+     */
+    public static final int CAPTURE_MODE_ZERO_SHUTTER_LAG = 2;
+
     /**
      * 默认最大录制时间
      */
@@ -38,10 +53,16 @@ public final class CustomCameraConfig {
      */
     public static CameraImageEngine imageEngine;
 
+    /**
+     * 预览帧分析，为空时不绑定ImageAnalysis
+     */
+    public static CameraFrameAnalyzer frameAnalyzer;
+
     /**
      * 释放监听器
      */
     public static void destroy() {
         CustomCameraConfig.imageEngine = null;
+        CustomCameraConfig.frameAnalyzer = null;
     }
 }
@@ -18,9 +18,11 @@ import android.media.MediaPlayer;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.provider.MediaStore;
 import android.text.TextUtils;
 import android.util.AttributeSet;
+import android.util.Size;
 import android.view.Surface;
 import android.view.TextureView;
 import android.view.View;
@@ -40,6 +42,7 @@ import androidx.camera.core.FocusMeteringResult;
 import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageCapture;
 import androidx.camera.core.ImageCaptureException;
+import androidx.camera.core.ImageProxy;
 import androidx.camera.core.MeteringPoint;
 import androidx.camera.core.MeteringPointFactory;
 import androidx.camera.core.Preview;
@@ -58,25 +61,29 @@ import com.luck.lib.camerax.listener.CameraXPreviewViewTouchListener;
 import com.luck.lib.camerax.listener.CaptureListener;
 import com.luck.lib.camerax.listener.ClickListener;
 import com.luck.lib.camerax.listener.ImageCallbackListener;
+import com.luck.lib.camerax.listener.SaveProgressListener;
 import com.luck.lib.camerax.listener.TypeListener;
 import com.luck.lib.camerax.permissions.PermissionChecker;
 import com.luck.lib.camerax.permissions.PermissionResultCallback;
 import com.luck.lib.camerax.permissions.PermissionUtil;
 import com.luck.lib.camerax.utils.CameraUtils;
+import com.luck.lib.camerax.utils.CaptureInfoUtils;
 import com.luck.lib.camerax.utils.DensityUtil;
 import com.luck.lib.camerax.utils.FileUtils;
+import com.luck.lib.camerax.utils.FrameAnalysisStats;
+import com.luck.lib.camerax.utils.MediaStoreSaveTask;
 import com.luck.lib.camerax.widget.CaptureLayout;
 import com.luck.lib.camerax.widget.FocusImageView;
 
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.OutputStream;
 import java.lang.ref.WeakReference;
 import java.util.Locale;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 
@@ -165,6 +172,31 @@ public class CustomCameraView extends RelativeLayout {
      */
     private boolean isZoomPreview;
 
+    /**
+     * 拍摄结果直接写入相册
+     */
+    private boolean isCaptureToMediaStore;
+
+    /**
+     * 同时绑定拍照及录像
+     */
+    private boolean isConcurrentUseCases;
+
+    /**
+     * 拍照模式
+     */
+    private int captureMode;
+
+    /**
+     * 拍照目标分辨率
+     */
+    private int captureTargetWidth, captureTargetHeight;
+
+    /**
+     * 拍照JPEG压缩质量
+     */
+    private int captureJpegQuality;
+
     private long recordTime = 0;
 
     /**
@@ -173,6 +205,7 @@ public class CustomCameraView extends RelativeLayout {
     private CameraListener mCameraListener;
     private ClickListener mOnClickListener;
     private ImageCallbackListener mImageCallbackListener;
+    private SaveProgressListener mSaveProgressListener;
     private ImageView mImagePreview;
     private ImageView mSwitchCamera;
     private ImageView mFlashLamp;
@@ -187,6 +220,26 @@ public class CustomCameraView extends RelativeLayout {
     private FocusImageView focusImageView;
     private Executor mainExecutor;
 
+    /**
+     * 拍摄结果写入相册的串行线程
+     */
+    private ExecutorService mSaveExecutor;
+    private MediaStoreSaveTask mSaveTask;
+    /**
+     * 用户已确认，等待写入相册完成
+     */
+    private boolean isWaitingSave;
+    /**
+     * 直接写入相册且尚未确认的拍摄结果
+     */
+    private Uri mPendingOutputUri;
+
+    /**
+     * 预览帧分析线程
+     */
+    private ExecutorService mAnalyzerExecutor;
+    private final FrameAnalysisStats mFrameAnalysisStats = new FrameAnalysisStats();
+
     private boolean isImageCaptureEnabled() {
         return useCameraCases == LifecycleCameraController.IMAGE_CAPTURE;
     }
@@ -258,21 +311,15 @@ public class CustomCameraView extends RelativeLayout {
                 mSwitchCamera.setVisibility(INVISIBLE);
                 mFlashLamp.setVisibility(INVISIBLE);
                 tvCurrentTime.setVisibility(GONE);
+                long shutterTime = SystemClock.elapsedRealtime();
                 boolean isReversedHorizontal = lensFacing == CameraSelector.LENS_FACING_FRONT;
                 ImageCapture.Metadata metadata = new ImageCapture.Metadata();
                 metadata.setReversedHorizontal(isReversedHorizontal);
-                ImageCapture.OutputFileOptions fileOptions;
-                File cameraFile;
-                if (isSaveExternal()) {
-                    cameraFile = createTempFile(false);
+                if (isCaptureToMediaStoreEnabled()) {
+                    takePictureToMediaStore(metadata, shutterTime);
                 } else {
-                    cameraFile = FileUtils.createCameraFile(getContext(), CameraUtils.TYPE_IMAGE,
-                            outPutCameraFileName, imageFormat, outPutCameraDir);
+                    takePictureToFile(metadata, shutterTime);
                 }
-                fileOptions = new ImageCapture.OutputFileOptions.Builder(cameraFile)
-                        .setMetadata(metadata).build();
-                mImageCapture.takePicture(fileOptions, mainExecutor,
-                        new MyImageResultCallback(mImagePreview, mCaptureLayout, mImageCallbackListener, mCameraListener));
             }
 
             @Override
@@ -285,26 +332,40 @@ public class CustomCameraView extends RelativeLayout {
                 mFlashLamp.setVisibility(INVISIBLE);
                 tvCurrentTime.setVisibility(isDisplayRecordTime ? VISIBLE : GONE);
                 VideoCapture.OutputFileOptions fileOptions;
-                File cameraFile;
-                if (isSaveExternal()) {
-                    cameraFile = createTempFile(true);
+                if (isCaptureToMediaStoreEnabled()) {
+                    // 录制时直接写入IS_PENDING状态的相册记录
+                    ContentValues contentValues = CameraUtils.buildVideoContentValues(outPutCameraFileName, videoFormatForQ);
+                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                        contentValues.put(MediaStore.MediaColumns.IS_PENDING, 1);
+                    }
+                    fileOptions = new VideoCapture.OutputFileOptions.Builder(getContext().getContentResolver(),
+                            MediaStore.Video.Media.EXTERNAL_CONTENT_URI, contentValues).build();
                 } else {
-                    cameraFile = FileUtils.createCameraFile(getContext(), CameraUtils.TYPE_VIDEO,
-                            outPutCameraFileName, videoFormat, outPutCameraDir);
+                    File cameraFile;
+                    if (isSaveExternal()) {
+                        cameraFile = createTempFile(true);
+                    } else {
+                        cameraFile = FileUtils.createCameraFile(getContext(), CameraUtils.TYPE_VIDEO,
+                                outPutCameraFileName, videoFormat, outPutCameraDir);
+                    }
+                    fileOptions = new VideoCapture.OutputFileOptions.Builder(cameraFile).build();
                 }
-                fileOptions = new VideoCapture.OutputFileOptions.Builder(cameraFile).build();
                 mVideoCapture.startRecording(fileOptions, mainExecutor,
                         new VideoCapture.OnVideoSavedCallback() {
                             @Override
                             public void onVideoSaved(@NonNull @NotNull VideoCapture.OutputFileResults outputFileResults) {
                                 long minSecond = recordVideoMinSecond <= 0 ? CustomCameraConfig.DEFAULT_MIN_RECORD_VIDEO : recordVideoMinSecond;
-                                if (recordTime < minSecond || outputFileResults.getSavedUri() == null) {
+                                Uri savedUri = outputFileResults.getSavedUri();
+                                if (recordTime < minSecond || savedUri == null) {
+                                    if (savedUri != null && FileUtils.isContent(savedUri.toString())) {
+                                        FileUtils.deleteFile(getContext(), savedUri.toString());
+                                    }
                                     return;
                                 }
-                                Uri savedUri = outputFileResults.getSavedUri();
                                 Activity activity = (Activity) getContext();
                                 SimpleCameraX.putOutputUri(activity.getIntent(), savedUri);
                                 String outPutPath = FileUtils.isContent(savedUri.toString()) ? savedUri.toString() : savedUri.getPath();
+                                onCaptureSaved(savedUri, outPutPath);
                                 mTextureView.setVisibility(View.VISIBLE);
                                 mCameraPreviewView.setVisibility(View.INVISIBLE);
                                 tvCurrentTime.setVisibility(GONE);
@@ -387,18 +448,40 @@ public class CustomCameraView extends RelativeLayout {
 
             @Override
             public void confirm() {
-                Activity activity = (Activity) getContext();
-                String outputPath = isMergeExternalStorageState(activity, SimpleCameraX.getOutputPath(activity.getIntent()));
-                if (isImageCaptureEnabled()) {
-                    mImagePreview.setVisibility(INVISIBLE);
-                    if (mCameraListener != null) {
-                        mCameraListener.onPictureSuccess(outputPath);
+                if (isWaitingSave) {
+                    return;
+                }
+                if (mPendingOutputUri != null) {
+                    Uri pendingOutputUri = mPendingOutputUri;
+                    mPendingOutputUri = null;
+                    publishPendingUri(pendingOutputUri, null);
+                } else if (mSaveTask != null) {
+                    if (mSaveTask.isDone()) {
+                        commitExternalSave();
+                    } else {
+                        // 写入相册尚未完成，完成后再回调结果
+                        isWaitingSave = true;
+                        mCaptureLayout.setButtonCaptureEnabled(false);
                     }
                 } else {
-                    stopVideoPlay();
-                    if (mCameraListener != null) {
-                        mCameraListener.onRecordSuccess(outputPath);
-                    }
+                    // 等待子线程中的拍摄信息读取完成
+                    isWaitingSave = true;
+                    getSaveExecutor().execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            mainExecutor.execute(new Runnable() {
+                                @Override
+                                public void run() {
+                                    if (!isWaitingSave) {
+                                        return;
+                                    }
+                                    isWaitingSave = false;
+                                    Activity activity = (Activity) getContext();
+                                    dispatchCaptureSuccess(SimpleCameraX.getOutputPath(activity.getIntent()));
+                                }
+                            });
+                        }
+                    });
                 }
             }
         });
@@ -412,33 +495,251 @@ public class CustomCameraView extends RelativeLayout {
         });
     }
 
-    private String isMergeExternalStorageState(Activity activity, String outputPath) {
+    /**
+     * 拍照，结果写入临时文件或自定义路径
+     *
+     * @param metadata
+     * @param shutterTime 按下快门的时间
+     */
+    private void takePictureToFile(ImageCapture.Metadata metadata, long shutterTime) {
+        File cameraFile;
         if (isSaveExternal()) {
-            try {
-                // 当用户未设置存储路径时，相片默认是存在外部公共目录下
-                Uri externalSavedUri;
-                if (isImageCaptureEnabled()) {
-                    ContentValues contentValues = CameraUtils.buildImageContentValues(outPutCameraFileName, imageFormatForQ);
-                    externalSavedUri = getContext().getContentResolver().insert(MediaStore.Images.Media.EXTERNAL_CONTENT_URI, contentValues);
-                } else {
-                    ContentValues contentValues = CameraUtils.buildVideoContentValues(outPutCameraFileName, videoFormatForQ);
-                    externalSavedUri = getContext().getContentResolver().insert(MediaStore.Video.Media.EXTERNAL_CONTENT_URI, contentValues);
+            cameraFile = createTempFile(false);
+        } else {
+            cameraFile = FileUtils.createCameraFile(getContext(), CameraUtils.TYPE_IMAGE,
+                    outPutCameraFileName, imageFormat, outPutCameraDir);
+        }
+        ImageCapture.OutputFileOptions fileOptions = new ImageCapture.OutputFileOptions.Builder(cameraFile)
+                .setMetadata(metadata).build();
+        mImageCapture.takePicture(fileOptions, mainExecutor,
+                new MyImageResultCallback(this, null, null, shutterTime, mImagePreview, mCaptureLayout,
+                        mImageCallbackListener, mCameraListener));
+    }
+
+    /**
+     * 拍照，结果直接写入IS_PENDING状态的相册记录，用户确认后才对外发布；
+     * 插入记录失败时退回到临时文件
+     * <p>
+     * 不使用ImageCapture.OutputFileOptions.Builder(contentResolver, uri, contentValues)，
+     * 因为CameraX写入完成后会立即清除IS_PENDING，照片在用户确认前就对其他应用可见；
+     * 插入记录需要跨进程调用，所以放在子线程中执行
+     * </p>
+     *
+     * @param metadata
+     * @param shutterTime 按下快门的时间
+     */
+    private void takePictureToMediaStore(final ImageCapture.Metadata metadata, final long shutterTime) {
+        final ContentValues contentValues = CameraUtils.buildImageContentValues(outPutCameraFileName, imageFormatForQ);
+        final Context appContext = getContext().getApplicationContext();
+        getSaveExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                Uri outputUri = MediaStoreSaveTask.insertPending(appContext,
+                        MediaStore.Images.Media.EXTERNAL_CONTENT_URI, contentValues);
+                OutputStream outputStream = null;
+                if (outputUri != null) {
+                    try {
+                        outputStream = appContext.getContentResolver().openOutputStream(outputUri);
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                    if (outputStream == null) {
+                        FileUtils.deleteFile(appContext, outputUri.toString());
+                    }
                 }
-                if (externalSavedUri == null) {
-                    return outputPath;
+                final Uri finalOutputUri = outputUri;
+                final OutputStream finalOutputStream = outputStream;
+                mainExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (finalOutputStream == null) {
+                            takePictureToFile(metadata, shutterTime);
+                            return;
+                        }
+                        ImageCapture.OutputFileOptions fileOptions = new ImageCapture.OutputFileOptions.Builder(finalOutputStream)
+                                .setMetadata(metadata).build();
+                        mImageCapture.takePicture(fileOptions, mainExecutor,
+                                new MyImageResultCallback(CustomCameraView.this, finalOutputUri, finalOutputStream,
+                                        shutterTime, mImagePreview, mCaptureLayout, mImageCallbackListener, mCameraListener));
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 拍摄完成，当用户未设置存储路径时，相片默认是存在外部公共目录下；
+     * 已直接写入相册的记录等待用户确认，否则在子线程中立即开始写入相册，不必等到用户确认
+     *
+     * @param savedUri   拍摄结果
+     * @param outputPath 拍摄结果路径
+     */
+    private void onCaptureSaved(Uri savedUri, String outputPath) {
+        loadCaptureInfo(outputPath);
+        if (isCaptureToMediaStoreEnabled() && FileUtils.isContent(outputPath)) {
+            mPendingOutputUri = savedUri;
+        } else if (isSaveExternal()) {
+            startExternalSave(outputPath);
+        }
+    }
+
+    /**
+     * 在子线程中读取拍摄结果的宽高、时长、方向、大小及视频缩略图，随结果返回给调用方
+     *
+     * @param outputPath 拍摄结果路径
+     */
+    private void loadCaptureInfo(final String outputPath) {
+        final boolean isImage = isImageCaptureEnabled();
+        final Context appContext = getContext().getApplicationContext();
+        getSaveExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                final CaptureInfoUtils.CaptureInfo info = isImage
+                        ? CaptureInfoUtils.getImageInfo(appContext, outputPath)
+                        : CaptureInfoUtils.getVideoInfo(appContext, outputPath);
+                if (info == null) {
+                    return;
                 }
-                OutputStream outputStream = getContext().getContentResolver().openOutputStream(externalSavedUri);
-                boolean isWriteFileSuccess = FileUtils.writeFileFromIS(new FileInputStream(outputPath), outputStream);
-                if (isWriteFileSuccess) {
-                    FileUtils.deleteFile(getContext(), outputPath);
-                    SimpleCameraX.putOutputUri(activity.getIntent(), externalSavedUri);
-                    return externalSavedUri.toString();
+                mainExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        Intent intent = ((Activity) getContext()).getIntent();
+                        if (TextUtils.equals(outputPath, SimpleCameraX.getOutputPath(intent))) {
+                            info.putTo(intent);
+                        } else if (info.thumbnail != null) {
+                            // 已取消或重新拍摄
+                            new File(info.thumbnail).delete();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void startExternalSave(String outputPath) {
+        cancelExternalSave();
+        Uri collectionUri;
+        ContentValues contentValues;
+        if (isImageCaptureEnabled()) {
+            contentValues = CameraUtils.buildImageContentValues(outPutCameraFileName, imageFormatForQ);
+            collectionUri = MediaStore.Images.Media.EXTERNAL_CONTENT_URI;
+        } else {
+            contentValues = CameraUtils.buildVideoContentValues(outPutCameraFileName, videoFormatForQ);
+            collectionUri = MediaStore.Video.Media.EXTERNAL_CONTENT_URI;
+        }
+        mSaveTask = new MediaStoreSaveTask(getContext(), outputPath, collectionUri,
+                contentValues, mainExecutor, mSaveCallback);
+        getSaveExecutor().execute(mSaveTask);
+    }
+
+    /**
+     * 取消写入相册，并删除已写入的记录
+     */
+    private void cancelExternalSave() {
+        if (mSaveTask == null) {
+            return;
+        }
+        final MediaStoreSaveTask task = mSaveTask;
+        mSaveTask = null;
+        if (isWaitingSave) {
+            isWaitingSave = false;
+            mCaptureLayout.setButtonCaptureEnabled(true);
+        }
+        task.cancel();
+        getSaveExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                task.deleteSavedUri();
+            }
+        });
+    }
+
+    /**
+     * 写入完成后对外发布相册记录，并删除临时文件
+     */
+    private void commitExternalSave() {
+        MediaStoreSaveTask task = mSaveTask;
+        mSaveTask = null;
+        Uri savedUri = task.getSavedUri();
+        if (savedUri == null) {
+            // 写入失败，使用临时文件
+            isWaitingSave = false;
+            mCaptureLayout.setButtonCaptureEnabled(true);
+            dispatchCaptureSuccess(task.getSourcePath());
+            return;
+        }
+        publishPendingUri(savedUri, task.getSourcePath());
+    }
+
+    /**
+     * 对外发布IS_PENDING状态的相册记录
+     *
+     * @param savedUri 相册记录
+     * @param tempPath 需要删除的临时文件
+     */
+    private void publishPendingUri(final Uri savedUri, @Nullable final String tempPath) {
+        isWaitingSave = true;
+        mCaptureLayout.setButtonCaptureEnabled(false);
+        if (!isImageCaptureEnabled()) {
+            stopVideoPlay();
+        }
+        final Context appContext = getContext().getApplicationContext();
+        getSaveExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                MediaStoreSaveTask.publish(appContext, savedUri);
+                if (tempPath != null) {
+                    FileUtils.deleteFile(appContext, tempPath);
                 }
-            } catch (FileNotFoundException e) {
-                e.printStackTrace();
+                mainExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        isWaitingSave = false;
+                        mCaptureLayout.setButtonCaptureEnabled(true);
+                        Activity activity = (Activity) getContext();
+                        SimpleCameraX.putOutputUri(activity.getIntent(), savedUri);
+                        dispatchCaptureSuccess(savedUri.toString());
+                    }
+                });
+            }
+        });
+    }
+
+    private void dispatchCaptureSuccess(String outputPath) {
+        if (isImageCaptureEnabled()) {
+            mImagePreview.setVisibility(INVISIBLE);
+            if (mCameraListener != null) {
+                mCameraListener.onPictureSuccess(outputPath);
+            }
+        } else {
+            stopVideoPlay();
+            if (mCameraListener != null) {
+                mCameraListener.onRecordSuccess(outputPath);
             }
         }
-        return outputPath;
+    }
+
+    private final MediaStoreSaveTask.Callback mSaveCallback = new MediaStoreSaveTask.Callback() {
+        @Override
+        public void onProgress(@NonNull MediaStoreSaveTask task, long current, long total) {
+            if (task == mSaveTask && mSaveProgressListener != null && total > 0) {
+                mSaveProgressListener.onProgress((int) (current * 100 / total));
+            }
+        }
+
+        @Override
+        public void onComplete(@NonNull MediaStoreSaveTask task, @Nullable Uri savedUri) {
+            if (task == mSaveTask && isWaitingSave) {
+                commitExternalSave();
+            }
+        }
+    };
+
+    private ExecutorService getSaveExecutor() {
+        if (mSaveExecutor == null) {
+            mSaveExecutor = Executors.newSingleThreadExecutor();
+        }
+        return mSaveExecutor;
     }
 
     /**
@@ -462,6 +763,10 @@ public class CustomCameraView extends RelativeLayout {
         return Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && TextUtils.isEmpty(outPutCameraDir);
     }
 
+    private boolean isCaptureToMediaStoreEnabled() {
+        return isCaptureToMediaStore && isSaveExternal();
+    }
+
     /**
      * 用户针对相机的一些参数配制
      *
@@ -478,6 +783,12 @@ public class CustomCameraView extends RelativeLayout {
         videoBitRate = extras.getInt(SimpleCameraX.EXTRA_VIDEO_BIT_RATE);
         isManualFocus = extras.getBoolean(SimpleCameraX.EXTRA_MANUAL_FOCUS);
         isZoomPreview = extras.getBoolean(SimpleCameraX.EXTRA_ZOOM_PREVIEW);
+        isCaptureToMediaStore = extras.getBoolean(SimpleCameraX.EXTRA_CAPTURE_TO_MEDIA_STORE);
+        captureMode = extras.getInt(SimpleCameraX.EXTRA_CAPTURE_MODE, CustomCameraConfig.CAPTURE_MODE_MINIMIZE_LATENCY);
+        isConcurrentUseCases = extras.getBoolean(SimpleCameraX.EXTRA_CONCURRENT_USE_CASES);
+        captureTargetWidth = extras.getInt(SimpleCameraX.EXTRA_CAPTURE_TARGET_WIDTH);
+        captureTargetHeight = extras.getInt(SimpleCameraX.EXTRA_CAPTURE_TARGET_HEIGHT);
+        captureJpegQuality = extras.getInt(SimpleCameraX.EXTRA_CAPTURE_JPEG_QUALITY);
 
         int recordVideoMaxSecond = extras.getInt(SimpleCameraX.EXTRA_RECORD_VIDEO_MAX_SECOND, CustomCameraConfig.DEFAULT_MAX_RECORD_VIDEO);
         recordVideoMinSecond = extras.getInt(SimpleCameraX.EXTRA_RECORD_VIDEO_MIN_SECOND, CustomCameraConfig.DEFAULT_MIN_RECORD_VIDEO);
@@ -561,6 +872,10 @@ public class CustomCameraView extends RelativeLayout {
      * 初始相机预览模式
      */
     private void bindCameraUseCases() {
+        if (buttonFeatures == CustomCameraConfig.BUTTON_STATE_BOTH && isConcurrentUseCases
+                && bindCameraConcurrentUseCases()) {
+            return;
+        }
         if (buttonFeatures == CustomCameraConfig.BUTTON_STATE_BOTH ||
                 buttonFeatures == CustomCameraConfig.BUTTON_STATE_ONLY_CAPTURE) {
             bindCameraImageUseCases();
@@ -569,6 +884,57 @@ public class CustomCameraView extends RelativeLayout {
         }
     }
 
+    /**
+     * 同时绑定预览、拍照及录像，拍照和录像切换时无需重新绑定
+     *
+     * @return false 设备不支持该组合，需要切换时重新绑定
+     */
+    @SuppressLint("RestrictedApi")
+    private boolean bindCameraConcurrentUseCases() {
+        try {
+            int screenAspectRatio = aspectRatio(DensityUtil.getScreenWidth(getContext()), DensityUtil.getScreenHeight(getContext()));
+            int rotation = mCameraPreviewView.getDisplay().getRotation();
+            CameraSelector cameraSelector = new CameraSelector.Builder().requireLensFacing(lensFacing).build();
+            Preview preview = new Preview.Builder()
+                    .setTargetAspectRatio(screenAspectRatio)
+                    .setTargetRotation(rotation)
+                    .build();
+            ImageCapture imageCapture = buildImageCapture(screenAspectRatio, rotation);
+            VideoCapture videoCapture = buildVideoCapture(rotation);
+            ImageAnalysis imageAnalysis = buildImageAnalysis(screenAspectRatio, rotation);
+            LifecycleOwner lifecycleOwner = (LifecycleOwner) getContext();
+            mCameraProvider.unbindAll();
+            Camera camera = null;
+            if (imageAnalysis != null) {
+                try {
+                    camera = mCameraProvider.bindToLifecycle(lifecycleOwner, cameraSelector,
+                            preview, imageCapture, videoCapture, imageAnalysis);
+                } catch (IllegalArgumentException e) {
+                    // analysis is the first to go if the camera can't stream all use cases at once
+                    imageAnalysis = null;
+                }
+            }
+            if (camera == null) {
+                camera = mCameraProvider.bindToLifecycle(lifecycleOwner, cameraSelector,
+                        preview, imageCapture, videoCapture);
+            }
+            mImageCapture = imageCapture;
+            mVideoCapture = videoCapture;
+            mImageAnalyzer = imageAnalysis;
+            preview.setSurfaceProvider(mCameraPreviewView.getSurfaceProvider());
+            setFlashMode();
+            mCameraInfo = camera.getCameraInfo();
+            mCameraControl = camera.getCameraControl();
+            initCameraPreviewListener();
+            return true;
+        } catch (Exception e) {
+            // the combination was rejected, fall back to binding per mode
+            e.printStackTrace();
+            mCameraProvider.unbindAll();
+            return false;
+        }
+    }
+
     /**
      * bindCameraImageUseCases
      */
@@ -584,23 +950,21 @@ public class CustomCameraView extends RelativeLayout {
                     .build();
 
             // ImageCapture
-            mImageCapture = new ImageCapture.Builder()
-                    .setCaptureMode(ImageCapture.CAPTURE_MODE_MINIMIZE_LATENCY)
-                    .setTargetAspectRatio(screenAspectRatio)
-                    .setTargetRotation(rotation)
-                    .build();
+            mImageCapture = buildImageCapture(screenAspectRatio, rotation);
 
-            // ImageAnalysis
-            mImageAnalyzer = new ImageAnalysis.Builder()
-                    .setTargetAspectRatio(screenAspectRatio)
-                    .setTargetRotation(rotation)
-                    .build();
+            // ImageAnalysis, only bound when a frame analyzer is registered
+            mImageAnalyzer = buildImageAnalysis(screenAspectRatio, rotation);
 
             // Must unbind the use-cases before rebinding them
             mCameraProvider.unbindAll();
             // A variable number of use-cases can be passed here -
             // camera provides access to CameraControl & CameraInfo
-            Camera camera = mCameraProvider.bindToLifecycle((LifecycleOwner) getContext(), cameraSelector, preview, mImageCapture, mImageAnalyzer);
+            Camera camera;
+            if (mImageAnalyzer != null) {
+                camera = mCameraProvider.bindToLifecycle((LifecycleOwner) getContext(), cameraSelector, preview, mImageCapture, mImageAnalyzer);
+            } else {
+                camera = mCameraProvider.bindToLifecycle((LifecycleOwner) getContext(), cameraSelector, preview, mImageCapture);
+            }
             // Attach the viewfinder's surface provider to preview use case
             preview.setSurfaceProvider(mCameraPreviewView.getSurfaceProvider());
             // setFlashMode
@@ -613,6 +977,78 @@ public class CustomCameraView extends RelativeLayout {
         }
     }
 
+    /**
+     * 按拍照模式、目标分辨率及压缩质量构建拍照用例
+     *
+     * @param screenAspectRatio
+     * @param rotation
+     * @return
+     */
+    private ImageCapture buildImageCapture(int screenAspectRatio, int rotation) {
+        ImageCapture.Builder builder = new ImageCapture.Builder()
+                .setCaptureMode(captureMode == CustomCameraConfig.CAPTURE_MODE_MAXIMIZE_QUALITY
+                        ? ImageCapture.CAPTURE_MODE_MAXIMIZE_QUALITY : ImageCapture.CAPTURE_MODE_MINIMIZE_LATENCY)
+                .setTargetRotation(rotation);
+        if (captureTargetWidth > 0 && captureTargetHeight > 0) {
+            // setTargetResolution and setTargetAspectRatio can't be used together
+            builder.setTargetResolution(new Size(captureTargetWidth, captureTargetHeight));
+        } else {
+            builder.setTargetAspectRatio(screenAspectRatio);
+        }
+        if (captureJpegQuality > 0) {
+            builder.setJpegQuality(Math.min(captureJpegQuality, 100));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 构建预览帧分析用例，未设置{@link CustomCameraConfig#frameAnalyzer}时返回null
+     *
+     * @param screenAspectRatio
+     * @param rotation
+     * @return
+     */
+    @Nullable
+    private ImageAnalysis buildImageAnalysis(int screenAspectRatio, int rotation) {
+        final CameraFrameAnalyzer frameAnalyzer = CustomCameraConfig.frameAnalyzer;
+        if (frameAnalyzer == null) {
+            return null;
+        }
+        ImageAnalysis imageAnalysis = new ImageAnalysis.Builder()
+                .setTargetAspectRatio(screenAspectRatio)
+                .setTargetRotation(rotation)
+                .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                .build();
+        if (mAnalyzerExecutor == null) {
+            mAnalyzerExecutor = Executors.newSingleThreadExecutor();
+        }
+        imageAnalysis.setAnalyzer(mAnalyzerExecutor, new ImageAnalysis.Analyzer() {
+            @Override
+            public void analyze(@NonNull ImageProxy image) {
+                long startTime = SystemClock.elapsedRealtimeNanos();
+                long timestamp = image.getImageInfo().getTimestamp();
+                try {
+                    frameAnalyzer.analyze(image, mFrameAnalysisStats);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    image.close();
+                    mFrameAnalysisStats.record(timestamp, SystemClock.elapsedRealtimeNanos() - startTime);
+                }
+            }
+        });
+        return imageAnalysis;
+    }
+
+    /**
+     * 预览帧分析耗时统计
+     *
+     * @return
+     */
+    public FrameAnalysisStats getFrameAnalysisStats() {
+        return mFrameAnalysisStats;
+    }
+
     /**
      * bindCameraVideoUseCases
      */
@@ -626,15 +1062,7 @@ public class CustomCameraView extends RelativeLayout {
                     .setTargetRotation(rotation)
                     .build();
             // VideoCapture
-            VideoCapture.Builder builder = new VideoCapture.Builder();
-            builder.setTargetRotation(rotation);
-            if (videoFrameRate > 0) {
-                builder.setVideoFrameRate(videoFrameRate);
-            }
-            if (videoBitRate > 0) {
-                builder.setBitRate(videoBitRate);
-            }
-            mVideoCapture = builder.build();
+            mVideoCapture = buildVideoCapture(rotation);
             // Must unbind the use-cases before rebinding them
             mCameraProvider.unbindAll();
             // A variable number of use-cases can be passed here -
@@ -651,6 +1079,19 @@ public class CustomCameraView extends RelativeLayout {
     }
 
 
+    @SuppressLint("RestrictedApi")
+    private VideoCapture buildVideoCapture(int rotation) {
+        VideoCapture.Builder builder = new VideoCapture.Builder();
+        builder.setTargetRotation(rotation);
+        if (videoFrameRate > 0) {
+            builder.setVideoFrameRate(videoFrameRate);
+        }
+        if (videoBitRate > 0) {
+            builder.setBitRate(videoBitRate);
+        }
+        return builder.build();
+    }
+
     private void initCameraPreviewListener() {
         LiveData<ZoomState> zoomState = mCameraInfo.getZoomState();
         CameraXPreviewViewTouchListener cameraXPreviewViewTouchListener = new CameraXPreviewViewTouchListener(getContext());
@@ -740,14 +1181,24 @@ public class CustomCameraView extends RelativeLayout {
      * 拍照回调
      */
     private static class MyImageResultCallback implements ImageCapture.OnImageSavedCallback {
+        private final WeakReference<CustomCameraView> mCameraViewReference;
+        private final Uri mOutputUri;
+        private final OutputStream mOutputStream;
+        private final long mShutterTime;
         private final WeakReference<ImageView> mImagePreviewReference;
         private final WeakReference<CaptureLayout> mCaptureLayoutReference;
         private final WeakReference<ImageCallbackListener> mImageCallbackListenerReference;
         private final WeakReference<CameraListener> mCameraListenerReference;
 
-        public MyImageResultCallback(ImageView imagePreview, CaptureLayout captureLayout,
+        public MyImageResultCallback(CustomCameraView cameraView, @Nullable Uri outputUri,
+                                     @Nullable OutputStream outputStream, long shutterTime,
+                                     ImageView imagePreview, CaptureLayout captureLayout,
                                      ImageCallbackListener imageCallbackListener,
                                      CameraListener cameraListener) {
+            this.mCameraViewReference = new WeakReference<>(cameraView);
+            this.mOutputUri = outputUri;
+            this.mOutputStream = outputStream;
+            this.mShutterTime = shutterTime;
             this.mImagePreviewReference = new WeakReference<>(imagePreview);
             this.mCaptureLayoutReference = new WeakReference<>(captureLayout);
             this.mImageCallbackListenerReference = new WeakReference<>(imageCallbackListener);
@@ -756,14 +1207,22 @@ public class CustomCameraView extends RelativeLayout {
 
         @Override
         public void onImageSaved(@NonNull ImageCapture.OutputFileResults outputFileResults) {
-            if (outputFileResults.getSavedUri() == null || mCaptureLayoutReference.get() == null ||
+            FileUtils.close(mOutputStream);
+            if (mCameraListenerReference.get() != null) {
+                mCameraListenerReference.get().onCaptureLatency(SystemClock.elapsedRealtime() - mShutterTime);
+            }
+            // 写入OutputStream时CameraX不返回savedUri
+            Uri savedUri = outputFileResults.getSavedUri() != null ? outputFileResults.getSavedUri() : mOutputUri;
+            if (savedUri == null || mCaptureLayoutReference.get() == null ||
                     mImagePreviewReference.get() == null || mImageCallbackListenerReference.get() == null) {
                 return;
             }
-            Uri savedUri = outputFileResults.getSavedUri();
             Context context = mImagePreviewReference.get().getContext();
             SimpleCameraX.putOutputUri(((Activity) context).getIntent(), savedUri);
             String outPutCameraPath = FileUtils.isContent(savedUri.toString()) ? savedUri.toString() : savedUri.getPath();
+            if (mCameraViewReference.get() != null) {
+                mCameraViewReference.get().onCaptureSaved(savedUri, outPutCameraPath);
+            }
             mCaptureLayoutReference.get().setButtonCaptureEnabled(true);
             mImageCallbackListenerReference.get().onLoadImage(outPutCameraPath, mImagePreviewReference.get());
             mImagePreviewReference.get().setVisibility(View.VISIBLE);
@@ -772,6 +1231,10 @@ public class CustomCameraView extends RelativeLayout {
 
         @Override
         public void onError(@NonNull ImageCaptureException exception) {
+            FileUtils.close(mOutputStream);
+            if (mOutputUri != null && mImagePreviewReference.get() != null) {
+                FileUtils.deleteFile(mImagePreviewReference.get().getContext(), mOutputUri.toString());
+            }
             if (mCaptureLayoutReference.get() != null) {
                 mCaptureLayoutReference.get().setButtonCaptureEnabled(true);
             }
@@ -885,6 +1348,15 @@ public class CustomCameraView extends RelativeLayout {
         this.mImageCallbackListener = mImageCallbackListener;
     }
 
+    /**
+     * 拍摄结果写入相册的进度
+     *
+     * @param saveProgressListener
+     */
+    public void setSaveProgressListener(SaveProgressListener saveProgressListener) {
+        this.mSaveProgressListener = saveProgressListener;
+    }
+
     /**
      * 重置状态
      */
@@ -963,6 +1435,11 @@ public class CustomCameraView extends RelativeLayout {
      * 取消拍摄相关
      */
     public void onCancelMedia() {
+        cancelExternalSave();
+        // 已直接写入相册的记录随输出路径一起删除
+        mPendingOutputUri = null;
+        isWaitingSave = false;
+        CaptureInfoUtils.clear(((Activity) getContext()).getIntent());
         String outputPath = SimpleCameraX.getOutputPath(((Activity) getContext()).getIntent());
         FileUtils.deleteFile(getContext(), outputPath);
         stopVideoPlay();
@@ -996,5 +1473,26 @@ public class CustomCameraView extends RelativeLayout {
     public void onDestroy() {
         displayManager.unregisterDisplayListener(displayListener);
         focusImageView.destroy();
+        cancelExternalSave();
+        if (mPendingOutputUri != null) {
+            final Context appContext = getContext().getApplicationContext();
+            final Uri pendingOutputUri = mPendingOutputUri;
+            mPendingOutputUri = null;
+            getSaveExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    FileUtils.deleteFile(appContext, pendingOutputUri.toString());
+                }
+            });
+        }
+        if (mSaveExecutor != null) {
+            mSaveExecutor.shutdown();
+        }
+        if (mImageAnalyzer != null) {
+            mImageAnalyzer.clearAnalyzer();
+        }
+        if (mAnalyzerExecutor != null) {
+            mAnalyzerExecutor.shutdown();
+        }
     }
 }
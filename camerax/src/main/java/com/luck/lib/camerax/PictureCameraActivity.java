@@ -82,6 +82,11 @@ public class PictureCameraActivity extends AppCompatActivity {
                 Toast.makeText(PictureCameraActivity.this.getApplicationContext(),
                         message, Toast.LENGTH_LONG).show();
             }
+
+            @Override
+            public void onCaptureLatency(long latencyMillis) {
+                getIntent().putExtra(SimpleCameraX.EXTRA_CAPTURE_LATENCY, latencyMillis);
+            }
         });
 
         mCameraView.setOnCancelClickListener(new ClickListener() {
@@ -53,6 +53,35 @@ public class SimpleCameraX {
 
     public static final String EXTRA_ZOOM_PREVIEW = EXTRA_PREFIX + ".isZoomPreview";
 
+    public static final String EXTRA_CAPTURE_TO_MEDIA_STORE = EXTRA_PREFIX + ".isCaptureToMediaStore";
+
+    public static final String EXTRA_CAPTURE_MODE = EXTRA_PREFIX + ".CaptureMode";
+
+    public static final String EXTRA_CONCURRENT_USE_CASES = EXTRA_PREFIX + ".isConcurrentUseCases";
+
+    public static final String EXTRA_CAPTURE_TARGET_WIDTH = EXTRA_PREFIX + ".CaptureTargetWidth";
+
+    public static final String EXTRA_CAPTURE_TARGET_HEIGHT = EXTRA_PREFIX + ".CaptureTargetHeight";
+
+    public static final String EXTRA_CAPTURE_JPEG_QUALITY = EXTRA_PREFIX + ".CaptureJpegQuality";
+
+    public static final String EXTRA_CAPTURE_LATENCY = EXTRA_PREFIX + ".CaptureLatency";
+
+    /**
+     * 拍摄结果信息，与PictureSelector中CustomIntentKey的定义保持一致
+     */
+    public static final String EXTRA_MEDIA_WIDTH = "mediaWidth";
+
+    public static final String EXTRA_MEDIA_HEIGHT = "mediaHeight";
+
+    public static final String EXTRA_MEDIA_DURATION = "mediaDuration";
+
+    public static final String EXTRA_MEDIA_ORIENTATION = "mediaOrientation";
+
+    public static final String EXTRA_MEDIA_SIZE = "mediaSize";
+
+    public static final String EXTRA_MEDIA_THUMBNAIL = "mediaThumbnail";
+
     private final Intent mCameraIntent;
 
     private final Bundle mCameraBundle;
@@ -124,6 +153,58 @@ public class SimpleCameraX {
     }
 
 
+    /**
+     * 拍照和录像模式下同时绑定预览、拍照及录像，切换时不再重新绑定，避免预览黑屏
+     * <p>
+     * 设备不支持该组合时自动退回到切换时重新绑定；部分设备同时绑定时拍照分辨率会受录像分辨率限制
+     *
+     * @param isConcurrentUseCases
+     * @return
+     */
+    public SimpleCameraX isConcurrentUseCases(boolean isConcurrentUseCases) {
+        mCameraBundle.putBoolean(EXTRA_CONCURRENT_USE_CASES, isConcurrentUseCases);
+        return this;
+    }
+
+    /**
+     * 拍照模式，速度优先或质量优先
+     *
+     * @param captureMode Use {@link CustomCameraConfig#CAPTURE_MODE_MINIMIZE_LATENCY}
+     *                    or {@link CustomCameraConfig#CAPTURE_MODE_MAXIMIZE_QUALITY}
+     *                    or {@link CustomCameraConfig#CAPTURE_MODE_ZERO_SHUTTER_LAG}
+     * @return
+     */
+    public SimpleCameraX setCaptureMode(int captureMode) {
+        mCameraBundle.putInt(EXTRA_CAPTURE_MODE, captureMode);
+        return this;
+    }
+
+    /**
+     * 拍照目标分辨率，相机会选择最接近的支持尺寸；未设置时按屏幕宽高比选择
+     * <p>
+     * 尺寸按预览方向计算，竖屏时width小于height
+     *
+     * @param width
+     * @param height
+     * @return
+     */
+    public SimpleCameraX setCaptureResolution(int width, int height) {
+        mCameraBundle.putInt(EXTRA_CAPTURE_TARGET_WIDTH, width);
+        mCameraBundle.putInt(EXTRA_CAPTURE_TARGET_HEIGHT, height);
+        return this;
+    }
+
+    /**
+     * 拍照JPEG压缩质量
+     *
+     * @param quality 1~100
+     * @return
+     */
+    public SimpleCameraX setCaptureJpegQuality(int quality) {
+        mCameraBundle.putInt(EXTRA_CAPTURE_JPEG_QUALITY, quality);
+        return this;
+    }
+
     /**
      * 视频帧率，越高视频体积越大
      *
@@ -281,6 +362,19 @@ public class SimpleCameraX {
         return this;
     }
 
+    /**
+     * 设置预览帧分析，如二维码识别、模糊检测
+     * <p>
+     * 只有设置后才会绑定ImageAnalysis，在独立的子线程中只分析最新的一帧
+     *
+     * @param analyzer
+     * @return
+     */
+    public SimpleCameraX setFrameAnalyzer(CameraFrameAnalyzer analyzer) {
+        CustomCameraConfig.frameAnalyzer = analyzer;
+        return this;
+    }
+
     /**
      * 是否手动点击对焦
      *
@@ -303,6 +397,18 @@ public class SimpleCameraX {
         return this;
     }
 
+    /**
+     * Android Q及以上且未设置存储路径时，拍摄结果直接写入相册(IS_PENDING状态)，不再经过临时文件复制；
+     * 用户确认后才对外可见，取消时删除
+     *
+     * @param isCaptureToMediaStore
+     * @return
+     */
+    public SimpleCameraX isCaptureToMediaStore(boolean isCaptureToMediaStore) {
+        mCameraBundle.putBoolean(EXTRA_CAPTURE_TO_MEDIA_STORE, isCaptureToMediaStore);
+        return this;
+    }
+
     /**
      * 保存相机输出的路径
      *
@@ -313,6 +419,16 @@ public class SimpleCameraX {
         intent.putExtra(MediaStore.EXTRA_OUTPUT, uri);
     }
 
+    /**
+     * 获取拍照耗时，从按下快门到照片写入完成
+     *
+     * @param intent
+     * @return 毫秒，未拍照时为-1
+     */
+    public static long getCaptureLatency(Intent intent) {
+        return intent.getLongExtra(EXTRA_CAPTURE_LATENCY, -1);
+    }
+
     /**
      * 获取保存相机输出的路径
      *
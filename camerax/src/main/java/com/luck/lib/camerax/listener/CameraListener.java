@@ -28,4 +28,12 @@ public interface CameraListener {
      * @param file
      */
     void onError(int videoCaptureError, String message, Throwable cause);
+
+    /**
+     * 拍照耗时，从按下快门到照片写入完成
+     *
+     * @param latencyMillis 毫秒
+     */
+    default void onCaptureLatency(long latencyMillis) {
+    }
 }
@@ -0,0 +1,13 @@
+package com.luck.lib.camerax.listener;
+
+/**
+ * @describe：拍摄结果写入相册的进度监听
+ */
+public interface SaveProgressListener {
+    /**
+     * 写入进度，主线程回调
+     *
+     * @param progress 0~100
+     */
+    void onProgress(int progress);
+}
@@ -0,0 +1,306 @@
+package com.luck.lib.camerax.utils;
+
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.media.MediaMetadataRetriever;
+import android.net.Uri;
+import android.os.Build;
+import android.os.ParcelFileDescriptor;
+import android.text.TextUtils;
+
+import androidx.annotation.Nullable;
+
+import com.luck.lib.camerax.SimpleCameraX;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * @describe：拍摄完成后在子线程中读取宽高、时长、方向、大小，视频另外生成缩略图，
+ * 随结果一起返回，选择器无需再次解析文件
+ * <p>
+ * 缩略图保存在缓存目录，最多保留{@link #MAX_THUMBNAIL_COUNT}个，生成新缩略图时删除最早的
+ */
+public class CaptureInfoUtils {
+
+    /**
+     * 缩略图最长边
+     */
+    private static final int THUMBNAIL_SIZE = 256;
+
+    private static final int THUMBNAIL_QUALITY = 80;
+
+    /**
+     * 缩略图最多保留数量
+     */
+    private static final int MAX_THUMBNAIL_COUNT = 20;
+
+    public static class CaptureInfo {
+        /**
+         * 图片为像素宽高(未按方向旋转)，视频为按方向旋转后的宽高
+         */
+        public int width;
+        public int height;
+        public long duration;
+        /**
+         * 旋转角度 0、90、180、270
+         */
+        public int orientation;
+        public long size;
+        /**
+         * 视频缩略图，照片为null
+         */
+        public String thumbnail;
+
+        /**
+         * 写入相机返回的Intent
+         *
+         * @param intent
+         */
+        public void putTo(Intent intent) {
+            intent.putExtra(SimpleCameraX.EXTRA_MEDIA_WIDTH, width);
+            intent.putExtra(SimpleCameraX.EXTRA_MEDIA_HEIGHT, height);
+            intent.putExtra(SimpleCameraX.EXTRA_MEDIA_DURATION, duration);
+            intent.putExtra(SimpleCameraX.EXTRA_MEDIA_ORIENTATION, orientation);
+            intent.putExtra(SimpleCameraX.EXTRA_MEDIA_SIZE, size);
+            intent.putExtra(SimpleCameraX.EXTRA_MEDIA_THUMBNAIL, thumbnail);
+        }
+    }
+
+    /**
+     * 清除Intent中的拍摄信息
+     *
+     * @param intent
+     */
+    public static void clear(Intent intent) {
+        intent.removeExtra(SimpleCameraX.EXTRA_MEDIA_WIDTH);
+        intent.removeExtra(SimpleCameraX.EXTRA_MEDIA_HEIGHT);
+        intent.removeExtra(SimpleCameraX.EXTRA_MEDIA_DURATION);
+        intent.removeExtra(SimpleCameraX.EXTRA_MEDIA_ORIENTATION);
+        intent.removeExtra(SimpleCameraX.EXTRA_MEDIA_SIZE);
+        String thumbnail = intent.getStringExtra(SimpleCameraX.EXTRA_MEDIA_THUMBNAIL);
+        if (!TextUtils.isEmpty(thumbnail)) {
+            new File(thumbnail).delete();
+        }
+        intent.removeExtra(SimpleCameraX.EXTRA_MEDIA_THUMBNAIL);
+    }
+
+    /**
+     * 读取照片信息，需在子线程中调用，照片本身即可作为封面，不生成缩略图
+     *
+     * @param context
+     * @param path    文件路径或content://
+     * @return 读取失败时为null
+     */
+    @Nullable
+    public static CaptureInfo getImageInfo(Context context, String path) {
+        InputStream inputStream = null;
+        try {
+            CaptureInfo info = new CaptureInfo();
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            inputStream = openInputStream(context, path);
+            BitmapFactory.decodeStream(inputStream, null, options);
+            FileUtils.close(inputStream);
+            if (options.outWidth <= 0 || options.outHeight <= 0) {
+                return null;
+            }
+            info.width = options.outWidth;
+            info.height = options.outHeight;
+            info.orientation = getImageOrientation(context, path);
+            info.size = getSize(context, path);
+            return info;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            FileUtils.close(inputStream);
+        }
+    }
+
+    /**
+     * 读取视频信息，需在子线程中调用
+     *
+     * @param context
+     * @param path    文件路径或content://
+     * @return 读取失败时为null
+     */
+    @Nullable
+    public static CaptureInfo getVideoInfo(Context context, String path) {
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        Bitmap bitmap = null;
+        try {
+            if (FileUtils.isContent(path)) {
+                retriever.setDataSource(context, Uri.parse(path));
+            } else {
+                retriever.setDataSource(path);
+            }
+            CaptureInfo info = new CaptureInfo();
+            int width = toInt(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_VIDEO_WIDTH));
+            int height = toInt(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_VIDEO_HEIGHT));
+            info.orientation = toInt(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_VIDEO_ROTATION));
+            boolean isSwap = info.orientation == 90 || info.orientation == 270;
+            info.width = isSwap ? height : width;
+            info.height = isSwap ? width : height;
+            info.duration = toLong(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION));
+            info.size = getSize(context, path);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1 && width > 0 && height > 0) {
+                float scale = Math.min(1F, THUMBNAIL_SIZE / (float) Math.max(width, height));
+                bitmap = retriever.getScaledFrameAtTime(0, MediaMetadataRetriever.OPTION_CLOSEST_SYNC,
+                        Math.round(width * scale), Math.round(height * scale));
+            } else {
+                bitmap = retriever.getFrameAtTime(0, MediaMetadataRetriever.OPTION_CLOSEST_SYNC);
+            }
+            if (bitmap != null) {
+                // 取出的帧已按方向旋转
+                info.thumbnail = saveThumbnail(context, bitmap);
+            }
+            return info;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            try {
+                retriever.release();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            if (bitmap != null) {
+                bitmap.recycle();
+            }
+        }
+    }
+
+    private static InputStream openInputStream(Context context, String path) throws Exception {
+        if (FileUtils.isContent(path)) {
+            return context.getContentResolver().openInputStream(Uri.parse(path));
+        }
+        return new FileInputStream(path);
+    }
+
+    private static int getImageOrientation(Context context, String path) {
+        InputStream inputStream = null;
+        try {
+            ExifInterface exifInterface;
+            if (FileUtils.isContent(path)) {
+                if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N) {
+                    return 0;
+                }
+                inputStream = openInputStream(context, path);
+                exifInterface = new ExifInterface(inputStream);
+            } else {
+                exifInterface = new ExifInterface(path);
+            }
+            switch (exifInterface.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL)) {
+                case ExifInterface.ORIENTATION_ROTATE_90:
+                case ExifInterface.ORIENTATION_TRANSPOSE:
+                    return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180:
+                case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                    return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270:
+                case ExifInterface.ORIENTATION_TRANSVERSE:
+                    return 270;
+                default:
+                    return 0;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return 0;
+        } finally {
+            FileUtils.close(inputStream);
+        }
+    }
+
+    private static long getSize(Context context, String path) {
+        if (FileUtils.isContent(path)) {
+            ParcelFileDescriptor pfd = null;
+            try {
+                pfd = context.getContentResolver().openFileDescriptor(Uri.parse(path), "r");
+                return pfd != null ? pfd.getStatSize() : 0;
+            } catch (Exception e) {
+                e.printStackTrace();
+                return 0;
+            } finally {
+                FileUtils.close(pfd);
+            }
+        }
+        return new File(path).length();
+    }
+
+    @Nullable
+    private static String saveThumbnail(Context context, Bitmap bitmap) {
+        Bitmap target = bitmap;
+        FileOutputStream fos = null;
+        try {
+            int maxSide = Math.max(bitmap.getWidth(), bitmap.getHeight());
+            float scale = Math.min(1F, THUMBNAIL_SIZE / (float) maxSide);
+            if (scale < 1F) {
+                Matrix matrix = new Matrix();
+                matrix.postScale(scale, scale);
+                target = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+            }
+            File thumbnailDir = new File(context.getCacheDir(), "CameraThumbnail");
+            if (!thumbnailDir.exists()) {
+                thumbnailDir.mkdirs();
+            }
+            trimThumbnails(thumbnailDir);
+            File thumbnailFile = new File(thumbnailDir, DateUtils.getCreateFileName("thumb_") + CameraUtils.JPEG);
+            fos = new FileOutputStream(thumbnailFile);
+            target.compress(Bitmap.CompressFormat.JPEG, THUMBNAIL_QUALITY, fos);
+            fos.flush();
+            return thumbnailFile.getAbsolutePath();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            FileUtils.close(fos);
+            if (target != bitmap) {
+                target.recycle();
+            }
+        }
+    }
+
+    /**
+     * 删除最早的缩略图，为新的缩略图腾出位置
+     */
+    private static void trimThumbnails(File thumbnailDir) {
+        File[] files = thumbnailDir.listFiles();
+        if (files == null || files.length < MAX_THUMBNAIL_COUNT) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File o1, File o2) {
+                return Long.compare(o1.lastModified(), o2.lastModified());
+            }
+        });
+        for (int i = 0; i <= files.length - MAX_THUMBNAIL_COUNT; i++) {
+            files[i].delete();
+        }
+    }
+
+    private static int toInt(String value) {
+        try {
+            return TextUtils.isEmpty(value) ? 0 : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static long toLong(String value) {
+        try {
+            return TextUtils.isEmpty(value) ? 0 : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.luck.lib.camerax.utils;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @describe：预览帧分析耗时统计
+ */
+public class FrameAnalysisStats {
+
+    private long frameCount;
+    private long totalCostNanos;
+    private long maxCostNanos;
+    private long lastCostNanos;
+    private long firstTimestamp;
+    private long lastTimestamp;
+
+    /**
+     * 记录一帧
+     *
+     * @param timestamp 帧时间戳，纳秒
+     * @param costNanos 分析耗时，纳秒
+     */
+    public synchronized void record(long timestamp, long costNanos) {
+        if (frameCount == 0) {
+            firstTimestamp = timestamp;
+        }
+        frameCount++;
+        lastTimestamp = timestamp;
+        lastCostNanos = costNanos;
+        totalCostNanos += costNanos;
+        maxCostNanos = Math.max(maxCostNanos, costNanos);
+    }
+
+    public synchronized void reset() {
+        frameCount = 0;
+        totalCostNanos = 0;
+        maxCostNanos = 0;
+        lastCostNanos = 0;
+        firstTimestamp = 0;
+        lastTimestamp = 0;
+    }
+
+    /**
+     * 已分析的帧数
+     */
+    public synchronized long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * 最近一帧的分析耗时，毫秒
+     */
+    public synchronized double getLastCostMillis() {
+        return toMillis(lastCostNanos);
+    }
+
+    /**
+     * 平均分析耗时，毫秒
+     */
+    public synchronized double getAverageCostMillis() {
+        return frameCount > 0 ? toMillis(totalCostNanos / frameCount) : 0;
+    }
+
+    /**
+     * 最大分析耗时，毫秒
+     */
+    public synchronized double getMaxCostMillis() {
+        return toMillis(maxCostNanos);
+    }
+
+    /**
+     * 实际分析的帧率，分析慢于相机输出时中间的帧会被丢弃
+     */
+    public synchronized double getAnalyzedFps() {
+        long duration = lastTimestamp - firstTimestamp;
+        if (frameCount < 2 || duration <= 0) {
+            return 0;
+        }
+        return (frameCount - 1) * (double) TimeUnit.SECONDS.toNanos(1) / duration;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US, "frames=%d, fps=%.1f, last=%.2fms, avg=%.2fms, max=%.2fms",
+                frameCount, getAnalyzedFps(), getLastCostMillis(), getAverageCostMillis(), getMaxCostMillis());
+    }
+}
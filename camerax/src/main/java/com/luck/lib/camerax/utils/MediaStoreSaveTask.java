@@ -0,0 +1,213 @@
+package com.luck.lib.camerax.utils;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Build;
+import android.provider.MediaStore;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+
+/**
+ * @describe：在子线程中把拍摄结果写入相册
+ * <p>
+ * 数据先写入IS_PENDING状态的MediaStore记录，其他应用不可见，
+ * 用户确认后再调用{@link #publish(Context, Uri)}对外发布；取消时删除该记录。
+ */
+public class MediaStoreSaveTask implements Runnable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public interface Callback {
+        /**
+         * 写入进度，在callbackExecutor中回调
+         */
+        void onProgress(@NonNull MediaStoreSaveTask task, long current, long total);
+
+        /**
+         * 写入结束，在callbackExecutor中回调；被取消时不回调
+         *
+         * @param savedUri 写入失败时为null
+         */
+        void onComplete(@NonNull MediaStoreSaveTask task, @Nullable Uri savedUri);
+    }
+
+    private final Context appContext;
+    private final String sourcePath;
+    private final Uri collectionUri;
+    private final ContentValues contentValues;
+    private final Executor callbackExecutor;
+    private final Callback callback;
+    private volatile boolean isCanceled;
+    private volatile boolean isDone;
+    private volatile Uri savedUri;
+
+    public MediaStoreSaveTask(Context context, String sourcePath, Uri collectionUri,
+                              ContentValues contentValues, Executor callbackExecutor, Callback callback) {
+        this.appContext = context.getApplicationContext();
+        this.sourcePath = sourcePath;
+        this.collectionUri = collectionUri;
+        this.contentValues = contentValues;
+        this.callbackExecutor = callbackExecutor;
+        this.callback = callback;
+    }
+
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    @Nullable
+    public Uri getSavedUri() {
+        return savedUri;
+    }
+
+    public boolean isDone() {
+        return isDone;
+    }
+
+    /**
+     * 取消写入，已写入的记录会被删除
+     * <p>
+     * 只是设置标记，需要在执行该任务的串行线程中再调用{@link #deleteSavedUri()}清理已完成的结果
+     */
+    public void cancel() {
+        isCanceled = true;
+    }
+
+    public boolean isCanceled() {
+        return isCanceled;
+    }
+
+    @Override
+    public void run() {
+        Uri uri = null;
+        boolean isSuccess = false;
+        InputStream inputStream = null;
+        OutputStream outputStream = null;
+        ContentResolver resolver = appContext.getContentResolver();
+        try {
+            if (!isCanceled) {
+                uri = insertPending(appContext, collectionUri, contentValues);
+            }
+            if (uri != null) {
+                File sourceFile = new File(sourcePath);
+                final long total = sourceFile.length();
+                inputStream = new FileInputStream(sourceFile);
+                outputStream = resolver.openOutputStream(uri);
+                if (outputStream != null) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    long current = 0;
+                    int lastPercent = -1;
+                    for (int len; !isCanceled && (len = inputStream.read(buffer)) != -1; ) {
+                        outputStream.write(buffer, 0, len);
+                        current += len;
+                        int percent = total > 0 ? (int) (current * 100 / total) : 0;
+                        if (percent != lastPercent) {
+                            lastPercent = percent;
+                            dispatchProgress(current, total);
+                        }
+                    }
+                    outputStream.flush();
+                    isSuccess = !isCanceled;
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            FileUtils.close(inputStream);
+            FileUtils.close(outputStream);
+        }
+        if (!isSuccess && uri != null) {
+            delete(resolver, uri);
+            uri = null;
+        }
+        savedUri = uri;
+        isDone = true;
+        if (!isCanceled) {
+            final Uri result = uri;
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onComplete(MediaStoreSaveTask.this, result);
+                }
+            });
+        }
+    }
+
+    /**
+     * 删除已写入的记录，需在执行该任务的线程中调用
+     */
+    public void deleteSavedUri() {
+        Uri uri = savedUri;
+        if (uri != null) {
+            savedUri = null;
+            delete(appContext.getContentResolver(), uri);
+        }
+    }
+
+    private void dispatchProgress(final long current, final long total) {
+        callbackExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!isCanceled) {
+                    callback.onProgress(MediaStoreSaveTask.this, current, total);
+                }
+            }
+        });
+    }
+
+    private static void delete(ContentResolver resolver, Uri uri) {
+        try {
+            resolver.delete(uri, null, null);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 插入一条IS_PENDING状态的记录，写入完成前其他应用不可见
+     *
+     * @param context
+     * @param collectionUri
+     * @param contentValues
+     * @return 插入失败时为null
+     */
+    @Nullable
+    public static Uri insertPending(Context context, Uri collectionUri, ContentValues contentValues) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            contentValues.put(MediaStore.MediaColumns.IS_PENDING, 1);
+        }
+        try {
+            return context.getContentResolver().insert(collectionUri, contentValues);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * 清除IS_PENDING标记，让其他应用可见
+     *
+     * @param context
+     * @param uri
+     */
+    public static void publish(Context context, Uri uri) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            try {
+                ContentValues values = new ContentValues(1);
+                values.put(MediaStore.MediaColumns.IS_PENDING, 0);
+                context.getContentResolver().update(uri, values, null, null);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -53,6 +53,7 @@ import com.luck.picture.lib.permissions.PermissionConfig;
 import com.luck.picture.lib.permissions.PermissionResultCallback;
 import com.luck.picture.lib.style.PictureSelectorStyle;
 import com.luck.picture.lib.style.SelectMainStyle;
+import com.luck.picture.lib.thread.PictureThreadUtils;
 import com.luck.picture.lib.utils.ActivityCompatHelper;
 import com.luck.picture.lib.utils.AnimUtils;
 import com.luck.picture.lib.utils.DateUtils;
@@ -119,6 +120,16 @@ public class PictureSelectorFragment extends PictureCommonFragment
 
     private SlideSelectTouchListener mDragSelectTouchListener;
 
+    /**
+     * 上拉加载的一页还未返回，此时不再请求下一页
+     */
+    private boolean isLoadingMore;
+
+    /**
+     * 每次上拉加载递增，只有最新一次请求的结果会被添加
+     */
+    private int mLoadMoreRequestCode;
+
     public static PictureSelectorFragment newInstance() {
         PictureSelectorFragment fragment = new PictureSelectorFragment();
         fragment.setArguments(new Bundle());
@@ -224,7 +235,8 @@ public class PictureSelectorFragment extends PictureCommonFragment
     public void onSaveInstanceState(@NonNull Bundle outState) {
         super.onSaveInstanceState(outState);
         outState.putInt(PictureConfig.EXTRA_ALL_FOLDER_SIZE, allFolderSize);
-        outState.putInt(PictureConfig.EXTRA_CURRENT_PAGE, mPage);
+        // 未返回的一页不计入，恢复后重新加载
+        outState.putInt(PictureConfig.EXTRA_CURRENT_PAGE, isLoadingMore ? mPage - 1 : mPage);
         outState.putInt(PictureConfig.EXTRA_PREVIEW_CURRENT_POSITION, mRecycler.getLastVisiblePosition());
         outState.putBoolean(PictureConfig.EXTRA_DISPLAY_CAMERA, mAdapter.isDisplayCamera());
     }
@@ -315,6 +327,7 @@ public class PictureSelectorFragment extends PictureCommonFragment
         } else {
             mLoader = new LocalMediaLoader(getContext(), config);
         }
+        mLoader.setLifecycleOwner(this);
     }
 
     private void initTitleBar() {
@@ -449,8 +462,14 @@ public class PictureSelectorFragment extends PictureCommonFragment
                 titleBar.setTitle(curFolder.getFolderName());
                 LocalMediaFolder lastFolder = SelectedManager.getCurrentLocalMediaFolder();
                 long lastBucketId = lastFolder.getBucketId();
+                if (curFolder.getBucketId() != lastBucketId) {
+                    // 上一个相册还未开始的缩略图等预加载任务已无意义
+                    PictureThreadUtils.dropPrefetchTasks();
+                }
                 if (config.isPageStrategy) {
                     if (curFolder.getBucketId() != lastBucketId) {
+                        // 上一个相册正在加载的一页作废，切回来时重新加载
+                        cancelLoadMore();
                         // 1、记录一下上一次相册数据加载到哪了，到时候切回来的时候要续上
                         lastFolder.setData(mAdapter.getData());
                         lastFolder.setCurrentDataPage(mPage);
@@ -643,6 +662,11 @@ public class PictureSelectorFragment extends PictureCommonFragment
             titleBar.setTitle(folderName);
             if (isNonNull) {
                 SelectedManager.setCurrentLocalMediaFolder(folder);
+                if (config.isPageStrategy) {
+                    cancelLoadMore();
+                    mPage = 1;
+                    mRecycler.setEnabledLoadMore(folder.isHasMore());
+                }
                 setAdapterData(folder.getData());
                 recoveryRecyclerPosition();
             } else {
@@ -928,8 +952,11 @@ public class PictureSelectorFragment extends PictureCommonFragment
      */
     @Override
     public void loadMoreMediaData() {
-        if (mRecycler.isEnabledLoadMore()) {
+        if (mRecycler.isEnabledLoadMore() && !isLoadingMore) {
+            // 快速滑动时会连续触发，上一页返回前不请求下一页，保证按顺序添加
+            isLoadingMore = true;
             mPage++;
+            final int requestCode = ++mLoadMoreRequestCode;
             LocalMediaFolder localMediaFolder = SelectedManager.getCurrentLocalMediaFolder();
             long bucketId = localMediaFolder != null ? localMediaFolder.getBucketId() : 0;
             if (PictureSelectionConfig.loaderDataEngine != null) {
@@ -937,7 +964,7 @@ public class PictureSelectorFragment extends PictureCommonFragment
                         getPageLimit(bucketId), config.pageSize, new OnQueryDataResultListener<LocalMedia>() {
                             @Override
                             public void onComplete(ArrayList<LocalMedia> result, boolean isHasMore) {
-                                handleMoreMediaData(result, isHasMore);
+                                handleMoreMediaData(requestCode, result, isHasMore);
                             }
                         });
             } else {
@@ -945,17 +972,33 @@ public class PictureSelectorFragment extends PictureCommonFragment
                         new OnQueryDataResultListener<LocalMedia>() {
                             @Override
                             public void onComplete(ArrayList<LocalMedia> result, boolean isHasMore) {
-                                handleMoreMediaData(result, isHasMore);
+                                handleMoreMediaData(requestCode, result, isHasMore);
                             }
                         });
             }
         }
     }
 
-    private void handleMoreMediaData(List<LocalMedia> result, boolean isHasMore) {
+    /**
+     * 作废正在加载的一页，页码回退，其结果不再添加
+     */
+    private void cancelLoadMore() {
+        if (isLoadingMore) {
+            isLoadingMore = false;
+            mLoadMoreRequestCode++;
+            mPage--;
+        }
+    }
+
+    private void handleMoreMediaData(int requestCode, List<LocalMedia> result, boolean isHasMore) {
         if (ActivityCompatHelper.isDestroy(getActivity())) {
             return;
         }
+        if (!isLoadingMore || requestCode != mLoadMoreRequestCode) {
+            // 已作废或重复回调，同一页只添加一次
+            return;
+        }
+        isLoadingMore = false;
         mRecycler.setEnabledLoadMore(isHasMore);
         if (mRecycler.isEnabledLoadMore()) {
             if (result.size() > 0) {
@@ -293,6 +293,7 @@ public class PictureSelectorPreviewFragment extends PictureCommonFragment {
                     } else {
                         // 就算不是分页模式也强行先使用LocalMediaPageLoader模式获取数据
                         mLoader = new LocalMediaPageLoader(getContext(), config);
+                        mLoader.setLifecycleOwner(this);
                         loadData(totalNum);
                     }
                 }
@@ -528,13 +529,14 @@ public class PictureSelectorPreviewFragment extends PictureCommonFragment {
         } else {
             mLoader = new LocalMediaLoader(getContext(), config);
         }
+        mLoader.setLifecycleOwner(this);
     }
 
     /**
      * 加载数据
      */
     private void loadData(int pageSize) {
-        if (config.isOnlySandboxDir) {
+        if (config.isOnlySandboxDir && !(config.isPageStrategy && PictureSelectionConfig.loaderDataEngine == null)) {
             if (PictureSelectionConfig.loaderDataEngine != null) {
                 PictureSelectionConfig.loaderDataEngine.loadOnlyInAppDirAllMediaData(getContext(),
                         new OnQueryAlbumListener<LocalMediaFolder>() {
@@ -140,6 +140,10 @@ public class BaseRecyclerMediaHolder extends RecyclerView.ViewHolder {
         String path = media.getPath();
         if (media.isEditorImage()) {
             path = media.getCutPath();
+        } else if (PictureMimeType.isHasVideo(media.getMimeType())
+                && !TextUtils.isEmpty(media.getVideoThumbnailPath())) {
+            // 缩略图是否存在已在子线程构建LocalMedia时检查
+            path = media.getVideoThumbnailPath();
         }
 
         loadCover(path);
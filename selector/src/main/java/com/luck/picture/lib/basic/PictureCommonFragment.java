@@ -65,9 +65,12 @@ import com.luck.picture.lib.thread.PictureThreadUtils;
 import com.luck.picture.lib.utils.ActivityCompatHelper;
 import com.luck.picture.lib.utils.BitmapUtils;
 import com.luck.picture.lib.utils.DateUtils;
+import com.luck.picture.lib.utils.LazySandboxTransformer;
 import com.luck.picture.lib.utils.MediaStoreUtils;
 import com.luck.picture.lib.utils.MediaUtils;
 import com.luck.picture.lib.utils.PictureFileUtils;
+import com.luck.picture.lib.utils.ResultTransformPipeline;
+import com.luck.picture.lib.utils.SandboxTransformDispatcher;
 import com.luck.picture.lib.utils.SdkVersionUtils;
 import com.luck.picture.lib.utils.ToastUtils;
 import com.luck.picture.lib.utils.ValueOf;
@@ -1067,14 +1070,7 @@ public abstract class PictureCommonFragment extends Fragment implements IPicture
 
                 ArrayList<LocalMedia> result = new ArrayList<>(selectedResult);
                 if (checkCompressValidity()) {
-                    showLoading();
-                    PictureSelectionConfig.compressEngine.onStartCompress(getContext(), result,
-                            new OnCallbackListener<ArrayList<LocalMedia>>() {
-                                @Override
-                                public void onCall(ArrayList<LocalMedia> result) {
-                                    onResultEvent(result);
-                                }
-                            });
+                    onCompressResult(result);
                 } else {
                     onResultEvent(result);
                 }
@@ -1098,7 +1094,7 @@ public abstract class PictureCommonFragment extends Fragment implements IPicture
      * 相机事件回调处理
      */
     private void dispatchHandleCamera(Intent intent) {
-        PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<LocalMedia>() {
+        PictureThreadUtils.getTaskGroup(this).executeByLane(PictureThreadUtils.LANE_INTERACTIVE, new PictureThreadUtils.SimpleTask<LocalMedia>() {
 
             @Override
             public LocalMedia doInBackground() {
@@ -1112,7 +1108,7 @@ public abstract class PictureCommonFragment extends Fragment implements IPicture
                 if (config.chooseMode == SelectMimeType.ofAudio()) {
                     copyOutputAudioToDir();
                 }
-                return buildLocalMedia(config.cameraPath);
+                return buildLocalMedia(config.cameraPath, getCameraExtraInfo(intent));
             }
 
             @Override
@@ -1132,7 +1128,7 @@ public abstract class PictureCommonFragment extends Fragment implements IPicture
     private void copyOutputAudioToDir() {
         try {
             if (!TextUtils.isEmpty(config.outPutAudioDir) && PictureMimeType.isContent(config.cameraPath)) {
-                InputStream inputStream = PictureContentResolver.getContentResolverOpenInputStream(getContext(),
+                InputStream inputStream = PictureContentResolver.getContentResolverOpenFileInputStream(getContext(),
                         Uri.parse(config.cameraPath));
                 String audioFileName;
                 if (TextUtils.isEmpty(config.outPutAudioFileName)) {
@@ -1177,6 +1173,31 @@ public abstract class PictureCommonFragment extends Fragment implements IPicture
         return outputPath;
     }
 
+    /**
+     * 相机拍摄时已读取的宽高、时长等信息，没有时返回null
+     *
+     * @param data
+     * @return
+     */
+    protected MediaExtraInfo getCameraExtraInfo(Intent data) {
+        if (data == null) {
+            return null;
+        }
+        int width = data.getIntExtra(CustomIntentKey.EXTRA_MEDIA_WIDTH, 0);
+        int height = data.getIntExtra(CustomIntentKey.EXTRA_MEDIA_HEIGHT, 0);
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        MediaExtraInfo extraInfo = new MediaExtraInfo();
+        extraInfo.setWidth(width);
+        extraInfo.setHeight(height);
+        extraInfo.setDuration(data.getLongExtra(CustomIntentKey.EXTRA_MEDIA_DURATION, 0));
+        extraInfo.setOrientation(String.valueOf(data.getIntExtra(CustomIntentKey.EXTRA_MEDIA_ORIENTATION, 0)));
+        extraInfo.setSize(data.getLongExtra(CustomIntentKey.EXTRA_MEDIA_SIZE, 0));
+        extraInfo.setVideoThumbnail(data.getStringExtra(CustomIntentKey.EXTRA_MEDIA_THUMBNAIL));
+        return extraInfo;
+    }
+
     /**
      * 刷新相册
      *
@@ -1208,6 +1229,16 @@ public abstract class PictureCommonFragment extends Fragment implements IPicture
      * @param generatePath
      */
     protected LocalMedia buildLocalMedia(String generatePath) {
+        return buildLocalMedia(generatePath, null);
+    }
+
+    /**
+     * buildLocalMedia
+     *
+     * @param generatePath
+     * @param cameraExtraInfo 相机已读取的资源信息，为null时重新解析文件
+     */
+    protected LocalMedia buildLocalMedia(String generatePath, MediaExtraInfo cameraExtraInfo) {
         if (ActivityCompatHelper.isDestroy(getActivity())) {
             return null;
         }
@@ -1248,24 +1279,56 @@ public abstract class PictureCommonFragment extends Fragment implements IPicture
                 bucketId = MediaUtils.generateCameraBucketId(getContext(), cameraFile, config.outPutCameraDir);
             }
         }
+        boolean isRotateImage = false;
+        int exifDegree = 0;
         if (PictureMimeType.isHasImage(mimeType)) {
             if (config.isCameraRotateImage) {
-                BitmapUtils.rotateImage(getContext(), generatePath);
+                if (config.isCameraTrustExif) {
+                    // 信任EXIF方向，图片数据保持原样不旋转、不重新编码；相机返回的方向即读取自文件EXIF，无需重复读取
+                    exifDegree = cameraExtraInfo != null ? ValueOf.toInt(cameraExtraInfo.getOrientation())
+                            : BitmapUtils.readPictureDegree(getContext(), generatePath);
+                } else {
+                    BitmapUtils.rotateImage(getContext(), generatePath);
+                    isRotateImage = true;
+                }
             }
         }
         MediaExtraInfo mediaExtraInfo;
-        if (PictureMimeType.isHasVideo(mimeType)) {
+        if (cameraExtraInfo != null && !PictureMimeType.isHasAudio(mimeType)) {
+            mediaExtraInfo = cameraExtraInfo;
+            if (isRotateImage && (TextUtils.equals("90", mediaExtraInfo.getOrientation())
+                    || TextUtils.equals("270", mediaExtraInfo.getOrientation()))) {
+                // 旋转后宽高互换
+                int width = mediaExtraInfo.getWidth();
+                mediaExtraInfo.setWidth(mediaExtraInfo.getHeight());
+                mediaExtraInfo.setHeight(width);
+            }
+        } else if (PictureMimeType.isHasVideo(mimeType)) {
             mediaExtraInfo = MediaUtils.getVideoSize(getContext(), generatePath);
         } else if (PictureMimeType.isHasAudio(mimeType)) {
             mediaExtraInfo = MediaUtils.getAudioSize(getContext(), generatePath);
         } else {
             mediaExtraInfo = MediaUtils.getImageSize(getContext(), generatePath);
         }
+        if (exifDegree == 90 || exifDegree == 270) {
+            // 图片数据未旋转，按显示方向互换宽高
+            int width = mediaExtraInfo.getWidth();
+            mediaExtraInfo.setWidth(mediaExtraInfo.getHeight());
+            mediaExtraInfo.setHeight(width);
+        }
         String folderName = MediaUtils.generateCameraFolderName(cameraFile.getAbsolutePath());
         LocalMedia media = LocalMedia.parseLocalMedia(id, generatePath, cameraFile.getAbsolutePath(),
                 cameraFile.getName(), folderName, mediaExtraInfo.getDuration(), config.chooseMode,
-                mimeType, mediaExtraInfo.getWidth(), mediaExtraInfo.getHeight(), cameraFile.length(), bucketId,
+                mimeType, mediaExtraInfo.getWidth(), mediaExtraInfo.getHeight(),
+                !isRotateImage && mediaExtraInfo.getSize() > 0 ? mediaExtraInfo.getSize() : cameraFile.length(), bucketId,
                 cameraFile.lastModified() / 1000);
+        if (PictureMimeType.isHasVideo(mimeType)) {
+            // 相机生成的缩略图可能已被清理，在子线程检查一次，列表绑定时不再访问文件
+            String videoThumbnail = mediaExtraInfo.getVideoThumbnail();
+            if (!TextUtils.isEmpty(videoThumbnail) && new File(videoThumbnail).exists()) {
+                media.setVideoThumbnailPath(videoThumbnail);
+            }
+        }
         if (SdkVersionUtils.isQ()) {
             media.setSandboxPath(PictureMimeType.isContent(generatePath) ? null : generatePath);
         }
@@ -1384,7 +1447,39 @@ public abstract class PictureCommonFragment extends Fragment implements IPicture
             }
             PictureSelectionConfig.cropEngine.onStartCrop(this, currentLocalMedia, result, Crop.REQUEST_CROP);
         } else if (checkCompressValidity()) {
-            showLoading();
+            onCompressResult(result);
+        } else {
+            onResultEvent(result);
+        }
+    }
+
+    /**
+     * 压缩选择结果
+     * <p>
+     * 开启isPipelineResultTransform且需要沙盒转换时，每个资源压缩完成后立即开始转换，不等待其他资源压缩
+     * </p>
+     *
+     * @param result
+     */
+    private void onCompressResult(ArrayList<LocalMedia> result) {
+        showLoading();
+        if (config.isPipelineResultTransform && PictureSelectionConfig.sandboxFileEngine != null
+                && !config.isLazySandboxTransform) {
+            new ResultTransformPipeline(getContext(), this, PictureSelectionConfig.compressEngine,
+                    PictureSelectionConfig.sandboxFileEngine, config.isCheckOriginalImage,
+                    config.isParallelSandboxTransform, result, new SandboxTransformDispatcher.OnProgressListener() {
+                        @Override
+                        public void onProgress(int completed, int total) {
+                            onSandboxTransformProgress(completed, total);
+                        }
+                    }, new ResultTransformPipeline.OnResultTransformListener() {
+                        @Override
+                        public void onComplete(ArrayList<LocalMedia> result, ResultTransformPipeline.StageTimings[] timings) {
+                            onResultTransformTimings(timings);
+                            onCallBackResult(result);
+                        }
+                    }).start();
+        } else {
             PictureSelectionConfig.compressEngine.onStartCompress(getContext(), result,
                     new OnCallbackListener<ArrayList<LocalMedia>>() {
                         @Override
@@ -1392,9 +1487,6 @@ public abstract class PictureCommonFragment extends Fragment implements IPicture
                             onResultEvent(result);
                         }
                     });
-
-        } else {
-            onResultEvent(result);
         }
     }
 
@@ -1459,24 +1551,26 @@ public abstract class PictureCommonFragment extends Fragment implements IPicture
      */
     private void copyExternalPathToAppInDirFor29(ArrayList<LocalMedia> result) {
         showLoading();
-        PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<ArrayList<LocalMedia>>() {
+        PictureThreadUtils.getTaskGroup(this).executeByLane(PictureThreadUtils.LANE_BACKGROUND, new PictureThreadUtils.SimpleTask<ArrayList<LocalMedia>>() {
             @Override
-            public ArrayList<LocalMedia> doInBackground() {
-                for (int i = 0; i < result.size(); i++) {
-                    LocalMedia media = result.get(i);
-                    PictureSelectionConfig.sandboxFileEngine.onStartSandboxFileTransform(getContext(), config.isCheckOriginalImage, i,
-                            media, new OnCallbackIndexListener<LocalMedia>() {
-                                @Override
-                                public void onCall(LocalMedia data, int index) {
-                                    LocalMedia media = result.get(index);
-                                    media.setSandboxPath(data.getSandboxPath());
-                                    if (config.isCheckOriginalImage) {
-                                        media.setOriginalPath(data.getOriginalPath());
-                                        media.setOriginal(!TextUtils.isEmpty(data.getOriginalPath()));
-                                    }
+            public ArrayList<LocalMedia> doInBackground() throws InterruptedException {
+                SandboxTransformDispatcher.dispatch(getContext(), PictureSelectionConfig.sandboxFileEngine,
+                        config.isCheckOriginalImage, config.isParallelSandboxTransform, result, new OnCallbackIndexListener<LocalMedia>() {
+                            @Override
+                            public void onCall(LocalMedia data, int index) {
+                                LocalMedia media = result.get(index);
+                                media.setSandboxPath(data.getSandboxPath());
+                                if (config.isCheckOriginalImage) {
+                                    media.setOriginalPath(data.getOriginalPath());
+                                    media.setOriginal(!TextUtils.isEmpty(data.getOriginalPath()));
                                 }
-                            });
-                }
+                            }
+                        }, new SandboxTransformDispatcher.OnProgressListener() {
+                            @Override
+                            public void onProgress(int completed, int total) {
+                                onSandboxTransformProgress(completed, total);
+                            }
+                        });
                 return result;
             }
 
@@ -1503,12 +1597,42 @@ public abstract class PictureCommonFragment extends Fragment implements IPicture
         }
     }
 
+    /**
+     * 沙盒转换进度，在子线程中回调
+     *
+     * @param completed
+     * @param total
+     */
+    private void onSandboxTransformProgress(final int completed, final int total) {
+        PictureThreadUtils.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                if (mLoadingDialog.isShowing()) {
+                    mLoadingDialog.setProgressText(completed + "/" + total);
+                }
+            }
+        });
+    }
+
+    /**
+     * 流水线处理各资源的阶段耗时，子类可重写用于统计
+     *
+     * @param timings 与选择结果一一对应
+     */
+    protected void onResultTransformTimings(ResultTransformPipeline.StageTimings[] timings) {
+
+    }
+
     /**
      * 返回处理完成后的选择结果
      */
     @Override
     public void onResultEvent(ArrayList<LocalMedia> result) {
-        if (PictureSelectionConfig.sandboxFileEngine != null) {
+        if (PictureSelectionConfig.sandboxFileEngine != null && config.isLazySandboxTransform) {
+            LazySandboxTransformer.submit(getContext(), PictureSelectionConfig.sandboxFileEngine,
+                    config.isCheckOriginalImage, config.isParallelSandboxTransform, result);
+            onCallBackResult(result);
+        } else if (PictureSelectionConfig.sandboxFileEngine != null) {
             copyExternalPathToAppInDirFor29(result);
         } else {
             mergeOriginalImage(result);
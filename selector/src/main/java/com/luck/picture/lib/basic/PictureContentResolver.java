@@ -2,6 +2,7 @@ package com.luck.picture.lib.basic;
 
 import android.content.Context;
 import android.net.Uri;
+import android.os.ParcelFileDescriptor;
 
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -44,4 +45,26 @@ public final class PictureContentResolver {
         }
         return null;
     }
+
+    /**
+     * ContentResolver openFileDescriptor
+     * <p>
+     * 以文件描述符打开，返回的流可直接获取FileChannel；打开失败时退回openInputStream
+     * </p>
+     *
+     * @param context
+     * @param uri
+     * @return
+     */
+    public static InputStream getContentResolverOpenFileInputStream(Context context, Uri uri) {
+        try {
+            ParcelFileDescriptor pfd = context.getContentResolver().openFileDescriptor(uri, "r");
+            if (pfd != null) {
+                return new ParcelFileDescriptor.AutoCloseInputStream(pfd);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return getContentResolverOpenInputStream(context, uri);
+    }
 }
@@ -99,6 +99,53 @@ public final class PictureSelectionCameraModel {
         return this;
     }
 
+    /**
+     * App Sandbox file path transform
+     * <p>
+     * isLazy true: the result is returned immediately and the sandbox transform continues in the background,
+     * use {@link com.luck.picture.lib.utils.LazySandboxTransformer} to wait for or read each resource
+     * </p>
+     *
+     * @param engine App Sandbox path transform
+     * @param isLazy Whether to return the result before the transform is complete
+     * @return
+     */
+    public PictureSelectionCameraModel setSandboxFileEngine(SandboxFileEngine engine, boolean isLazy) {
+        selectionConfig.isLazySandboxTransform = isLazy;
+        return setSandboxFileEngine(engine);
+    }
+
+    /**
+     * Transform several resources into the app sandbox at the same time
+     * <p>
+     * The {@link SandboxFileEngine} will be called concurrently from different worker threads
+     * and must be thread-safe, default false
+     * </p>
+     *
+     * @param isParallelSandboxTransform
+     * @return
+     */
+    public PictureSelectionCameraModel isParallelSandboxTransform(boolean isParallelSandboxTransform) {
+        selectionConfig.isParallelSandboxTransform = isParallelSandboxTransform;
+        return this;
+    }
+
+    /**
+     * Compress and sandbox transform each resource independently
+     * <p>
+     * Requires setCompressEngine and setSandboxFileEngine. The {@link CompressEngine} is called once per image
+     * with a single-item list, and several calls may be in progress at the same time;
+     * each image starts its sandbox transform as soon as it is compressed. default false
+     * </p>
+     *
+     * @param isPipelineResultTransform
+     * @return
+     */
+    public PictureSelectionCameraModel isPipelineResultTransform(boolean isPipelineResultTransform) {
+        selectionConfig.isPipelineResultTransform = isPipelineResultTransform;
+        return this;
+    }
+
     /**
      * Intercept camera click events, and users can implement their own camera framework
      *
@@ -408,6 +455,20 @@ public final class PictureSelectionCameraModel {
         return this;
     }
 
+    /**
+     * Trust the EXIF orientation of camera images and skip re-encoding
+     * <p>
+     * Used with {@link #isCameraRotateImage(boolean)}, the captured image is not decoded or rotated,
+     * its pixels stay as captured and only the EXIF orientation tag tells how to display it;
+     * width and height follow the displayed orientation.
+     * Consumers that ignore EXIF show the image sideways, leave this off when an upright file is required
+     * </p>
+     */
+    public PictureSelectionCameraModel isCameraTrustExif(boolean isTrustExif) {
+        selectionConfig.isCameraTrustExif = isTrustExif;
+        return this;
+    }
+
     /**
      * Start PictureSelector
      * <p>
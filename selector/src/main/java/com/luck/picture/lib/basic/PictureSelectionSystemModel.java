@@ -131,6 +131,53 @@ public final class PictureSelectionSystemModel {
         return this;
     }
 
+    /**
+     * App Sandbox file path transform
+     * <p>
+     * isLazy true: the result is returned immediately and the sandbox transform continues in the background,
+     * use {@link com.luck.picture.lib.utils.LazySandboxTransformer} to wait for or read each resource
+     * </p>
+     *
+     * @param engine App Sandbox path transform
+     * @param isLazy Whether to return the result before the transform is complete
+     * @return
+     */
+    public PictureSelectionSystemModel setSandboxFileEngine(SandboxFileEngine engine, boolean isLazy) {
+        selectionConfig.isLazySandboxTransform = isLazy;
+        return setSandboxFileEngine(engine);
+    }
+
+    /**
+     * Transform several resources into the app sandbox at the same time
+     * <p>
+     * The {@link SandboxFileEngine} will be called concurrently from different worker threads
+     * and must be thread-safe, default false
+     * </p>
+     *
+     * @param isParallelSandboxTransform
+     * @return
+     */
+    public PictureSelectionSystemModel isParallelSandboxTransform(boolean isParallelSandboxTransform) {
+        selectionConfig.isParallelSandboxTransform = isParallelSandboxTransform;
+        return this;
+    }
+
+    /**
+     * Compress and sandbox transform each resource independently
+     * <p>
+     * Requires setCompressEngine and setSandboxFileEngine. The {@link CompressEngine} is called once per image
+     * with a single-item list, and several calls may be in progress at the same time;
+     * each image starts its sandbox transform as soon as it is compressed. default false
+     * </p>
+     *
+     * @param isPipelineResultTransform
+     * @return
+     */
+    public PictureSelectionSystemModel isPipelineResultTransform(boolean isPipelineResultTransform) {
+        selectionConfig.isPipelineResultTransform = isPipelineResultTransform;
+        return this;
+    }
+
     /**
      * # file size The unit is KB
      *
@@ -34,4 +34,28 @@ public class CustomIntentKey {
      * 图片旋转比例
      */
     public static final String EXTRA_ASPECT_RATIO = "aspectRatio";
+    /**
+     * 相机返回的资源宽度
+     */
+    public static final String EXTRA_MEDIA_WIDTH = "mediaWidth";
+    /**
+     * 相机返回的资源高度
+     */
+    public static final String EXTRA_MEDIA_HEIGHT = "mediaHeight";
+    /**
+     * 相机返回的视频时长
+     */
+    public static final String EXTRA_MEDIA_DURATION = "mediaDuration";
+    /**
+     * 相机返回的资源旋转角度
+     */
+    public static final String EXTRA_MEDIA_ORIENTATION = "mediaOrientation";
+    /**
+     * 相机返回的资源大小
+     */
+    public static final String EXTRA_MEDIA_SIZE = "mediaSize";
+    /**
+     * 相机返回的缩略图
+     */
+    public static final String EXTRA_MEDIA_THUMBNAIL = "mediaThumbnail";
 }
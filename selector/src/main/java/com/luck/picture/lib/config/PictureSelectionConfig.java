@@ -19,11 +19,13 @@ import com.luck.picture.lib.interfaces.OnPreviewInterceptListener;
 import com.luck.picture.lib.interfaces.OnResultCallbackListener;
 import com.luck.picture.lib.interfaces.OnSelectLimitTipsListener;
 import com.luck.picture.lib.language.LanguageConfig;
+import com.luck.picture.lib.loader.SandboxFileLoader;
 import com.luck.picture.lib.magical.BuildRecycleItemViewParams;
 import com.luck.picture.lib.manager.SelectedManager;
 import com.luck.picture.lib.style.PictureSelectorStyle;
 import com.luck.picture.lib.thread.PictureThreadUtils;
 import com.luck.picture.lib.utils.SdkVersionUtils;
+import com.luck.picture.lib.utils.VideoThumbnailLoader;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -110,6 +112,10 @@ public final class PictureSelectionConfig implements Parcelable {
     public boolean isOriginalControl;
     public boolean isDisplayTimeAxis;
     public boolean isFastSlidingSelect;
+    public boolean isLazySandboxTransform;
+    public boolean isCameraTrustExif;
+    public boolean isParallelSandboxTransform;
+    public boolean isPipelineResultTransform;
 
     public static ImageEngine imageEngine;
     public static CompressEngine compressEngine;
@@ -203,6 +209,10 @@ public final class PictureSelectionConfig implements Parcelable {
         isOriginalControl = in.readByte() != 0;
         isDisplayTimeAxis = in.readByte() != 0;
         isFastSlidingSelect = in.readByte() != 0;
+        isLazySandboxTransform = in.readByte() != 0;
+        isCameraTrustExif = in.readByte() != 0;
+        isParallelSandboxTransform = in.readByte() != 0;
+        isPipelineResultTransform = in.readByte() != 0;
     }
 
     @Override
@@ -282,6 +292,10 @@ public final class PictureSelectionConfig implements Parcelable {
         dest.writeByte((byte) (isOriginalControl ? 1 : 0));
         dest.writeByte((byte) (isDisplayTimeAxis ? 1 : 0));
         dest.writeByte((byte) (isFastSlidingSelect ? 1 : 0));
+        dest.writeByte((byte) (isLazySandboxTransform ? 1 : 0));
+        dest.writeByte((byte) (isCameraTrustExif ? 1 : 0));
+        dest.writeByte((byte) (isParallelSandboxTransform ? 1 : 0));
+        dest.writeByte((byte) (isPipelineResultTransform ? 1 : 0));
     }
 
     @Override
@@ -376,6 +390,10 @@ public final class PictureSelectionConfig implements Parcelable {
         isInjectLayoutResource = false;
         isDisplayTimeAxis = true;
         isFastSlidingSelect = false;
+        isLazySandboxTransform = false;
+        isCameraTrustExif = false;
+        isParallelSandboxTransform = false;
+        isPipelineResultTransform = false;
         skipCropList = new ArrayList<>();
         sortOrder = "";
     }
@@ -422,6 +440,10 @@ public final class PictureSelectionConfig implements Parcelable {
         PictureSelectionConfig.onPreviewInterceptListener = null;
         PictureSelectionConfig.onSelectLimitTipsListener = null;
         PictureThreadUtils.cancel(PictureThreadUtils.getIoPool());
+        PictureThreadUtils.cancel(PictureThreadUtils.getLanePool(PictureThreadUtils.LANE_INTERACTIVE));
+        PictureThreadUtils.cancel(PictureThreadUtils.getLanePool(PictureThreadUtils.LANE_PREFETCH));
+        VideoThumbnailLoader.releaseRetrievers();
+        SandboxFileLoader.releasePageIndex();
         SelectedManager.clearSelectResult();
         BuildRecycleItemViewParams.clear();
         SelectedManager.setCurrentLocalMediaFolder(null);
@@ -4,14 +4,21 @@ package com.luck.picture.lib.dialog;
 import android.app.Dialog;
 import android.content.Context;
 import android.os.Bundle;
+import android.text.TextUtils;
 import android.view.Gravity;
+import android.view.View;
 import android.view.ViewGroup;
 import android.view.WindowManager;
+import android.widget.TextView;
 
 import com.luck.picture.lib.R;
 
 public class PictureLoadingDialog extends Dialog {
 
+    private TextView tvProgress;
+
+    private CharSequence progressText;
+
     public PictureLoadingDialog(Context context) {
         super(context, R.style.Picture_Theme_AlertDialog);
         setCancelable(true);
@@ -21,7 +28,33 @@ public class PictureLoadingDialog extends Dialog {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.ps_alert_dialog);
+        tvProgress = findViewById(R.id.ps_tv_progress);
         setDialogSize();
+        applyProgressText();
+    }
+
+    /**
+     * 设置进度文案，为空时隐藏
+     *
+     * @param text
+     */
+    public void setProgressText(CharSequence text) {
+        progressText = text;
+        applyProgressText();
+    }
+
+    @Override
+    public void dismiss() {
+        super.dismiss();
+        setProgressText(null);
+    }
+
+    private void applyProgressText() {
+        if (tvProgress == null) {
+            return;
+        }
+        tvProgress.setText(progressText);
+        tvProgress.setVisibility(TextUtils.isEmpty(progressText) ? View.GONE : View.VISIBLE);
     }
 
     private void setDialogSize() {
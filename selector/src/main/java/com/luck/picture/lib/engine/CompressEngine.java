@@ -29,6 +29,10 @@ public interface CompressEngine {
      * <p>
      * 2、listener.onCall( "you result" );
      * </p>
+     * <p>
+     * With isPipelineResultTransform enabled, this method is called once per image
+     * with a single-item list, and several calls may be in progress at the same time.
+     * </p>
      *
      * @param context
      * @param list
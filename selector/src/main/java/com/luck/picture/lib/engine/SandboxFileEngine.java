@@ -27,6 +27,11 @@ public interface SandboxFileEngine {
      * <p>
      * 2、listener.onCall( "you result" );
      * </p>
+     * <p>
+     * Call the listener synchronously before returning. With isParallelSandboxTransform
+     * enabled, this method is called concurrently from different worker threads
+     * and must be thread-safe.
+     * </p>
      *
      * @param context              context
      * @param isOriginalImage The original drawing needs to be processed
@@ -177,6 +177,11 @@ public class LocalMedia implements Parcelable {
      */
     private boolean isEditorImage;
 
+    /**
+     * 视频缩略图，拍摄时由相机生成
+     */
+    private String videoThumbnailPath;
+
     public LocalMedia() {
 
     }
@@ -215,6 +220,7 @@ public class LocalMedia implements Parcelable {
         isMaxSelectEnabledMask = in.readByte() != 0;
         isGalleryEnabledMask = in.readByte() != 0;
         isEditorImage = in.readByte() != 0;
+        videoThumbnailPath = in.readString();
     }
 
     @Override
@@ -251,6 +257,7 @@ public class LocalMedia implements Parcelable {
         dest.writeByte((byte) (isMaxSelectEnabledMask ? 1 : 0));
         dest.writeByte((byte) (isGalleryEnabledMask ? 1 : 0));
         dest.writeByte((byte) (isEditorImage ? 1 : 0));
+        dest.writeString(videoThumbnailPath);
     }
 
     @Override
@@ -603,6 +610,14 @@ public class LocalMedia implements Parcelable {
         isEditorImage = editorImage;
     }
 
+    public String getVideoThumbnailPath() {
+        return videoThumbnailPath;
+    }
+
+    public void setVideoThumbnailPath(String videoThumbnailPath) {
+        this.videoThumbnailPath = videoThumbnailPath;
+    }
+
     public long getDateAddedTime() {
         return dateAddedTime;
     }
@@ -28,6 +28,11 @@ public class MediaExtraInfo {
      */
     private String orientation;
 
+    /**
+     * size
+     */
+    private long size;
+
     public String getVideoThumbnail() {
         return videoThumbnail;
     }
@@ -68,6 +73,14 @@ public class MediaExtraInfo {
         this.orientation = orientation;
     }
 
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
     @Override
     public String toString() {
         return "MediaExtraInfo{" +
@@ -76,6 +89,7 @@ public class MediaExtraInfo {
                 ", height=" + height +
                 ", duration=" + duration +
                 ", orientation='" + orientation + '\'' +
+                ", size=" + size +
                 '}';
     }
 }
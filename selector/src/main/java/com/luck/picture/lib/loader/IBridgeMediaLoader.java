@@ -5,6 +5,8 @@ import android.net.Uri;
 import android.provider.MediaStore;
 import android.text.TextUtils;
 
+import androidx.lifecycle.LifecycleOwner;
+
 import com.luck.picture.lib.config.PictureMimeType;
 import com.luck.picture.lib.config.PictureSelectionConfig;
 import com.luck.picture.lib.config.SelectMimeType;
@@ -13,6 +15,7 @@ import com.luck.picture.lib.entity.LocalMediaFolder;
 import com.luck.picture.lib.interfaces.OnQueryAlbumListener;
 import com.luck.picture.lib.interfaces.OnQueryAllAlbumListener;
 import com.luck.picture.lib.interfaces.OnQueryDataResultListener;
+import com.luck.picture.lib.thread.PictureThreadUtils;
 
 import java.util.HashSet;
 import java.util.Iterator;
@@ -38,6 +41,29 @@ public class IBridgeMediaLoader {
     protected static final int MAX_SORT_SIZE = 60;
     protected Context mContext;
     protected PictureSelectionConfig config;
+    protected LifecycleOwner mLifecycleOwner;
+
+    /**
+     * 绑定生命周期，销毁时取消所有未完成的查询
+     *
+     * @param owner
+     */
+    public void setLifecycleOwner(LifecycleOwner owner) {
+        this.mLifecycleOwner = owner;
+    }
+
+    /**
+     * 在interactive通道中执行查询，优先于缩略图、拷贝等后台任务；绑定了生命周期时随之取消
+     *
+     * @param task
+     */
+    protected <T> void executeQuery(PictureThreadUtils.Task<T> task) {
+        if (mLifecycleOwner != null) {
+            PictureThreadUtils.getTaskGroup(mLifecycleOwner).executeByLane(PictureThreadUtils.LANE_INTERACTIVE, task);
+        } else {
+            PictureThreadUtils.executeByLane(PictureThreadUtils.LANE_INTERACTIVE, task);
+        }
+    }
 
     /**
      * 查询所有资源
@@ -77,7 +77,7 @@ public final class LocalMediaLoader extends IBridgeMediaLoader {
 
     @Override
     public void loadOnlyInAppDirAllMedia(OnQueryAlbumListener<LocalMediaFolder> listener) {
-        PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<LocalMediaFolder>() {
+        executeQuery(new PictureThreadUtils.SimpleTask<LocalMediaFolder>() {
 
             @Override
             public LocalMediaFolder doInBackground() {
@@ -96,7 +96,7 @@ public final class LocalMediaLoader extends IBridgeMediaLoader {
 
     @Override
     public void loadAllAlbum(OnQueryAllAlbumListener<LocalMediaFolder> query) {
-        PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<List<LocalMediaFolder>>() {
+        executeQuery(new PictureThreadUtils.SimpleTask<List<LocalMediaFolder>>() {
 
             @Override
             public List<LocalMediaFolder> doInBackground() {
@@ -191,7 +191,7 @@ public final class LocalMediaLoader extends IBridgeMediaLoader {
                                 int imageNum = allImageFolder.getFolderTotalNum();
                                 allImageFolder.setFolderTotalNum(imageNum + 1);
 
-                            } while (data.moveToNext());
+                            } while (!isCanceled() && data.moveToNext());
 
                             LocalMediaFolder selfFolder = SandboxFileLoader
                                     .loadInAppSandboxFolderFile(mContext, config.sandboxDir);
@@ -30,6 +30,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -41,6 +42,11 @@ import java.util.Set;
  */
 public final class LocalMediaPageLoader extends IBridgeMediaLoader {
 
+    /**
+     * In-flight page queries, the same query is only executed once
+     */
+    private final Map<String, PageQuery> mInFlightQueries = new HashMap<>();
+
     public LocalMediaPageLoader(Context context, PictureSelectionConfig config) {
         this.mContext = context;
         this.config = config;
@@ -208,10 +214,15 @@ public final class LocalMediaPageLoader extends IBridgeMediaLoader {
     @Override
     public void loadPageMediaData(long bucketId, int page, int limit, int pageSize,
                                   OnQueryDataResultListener<LocalMedia> listener) {
-        PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<MediaData>() {
+        String key = bucketId + "_" + page + "_" + limit + "_" + pageSize + "_" + getQueryConfigKey();
+        final PageQuery pageQuery = new PageQuery(bucketId, page);
+        pageQuery.task = new PictureThreadUtils.SimpleTask<MediaData>() {
 
             @Override
             public MediaData doInBackground() {
+                if (config.isOnlySandboxDir) {
+                    return SandboxFileLoader.loadInAppSandboxPageFile(mContext, config.sandboxDir, page, limit, pageSize);
+                }
                 Cursor data = null;
                 try {
                     if (SdkVersionUtils.isR()) {
@@ -221,6 +232,10 @@ public final class LocalMediaPageLoader extends IBridgeMediaLoader {
                         String orderBy = page == -1 ? getSortOrder() : getSortOrder() + " limit " + limit + " offset " + (page - 1) * pageSize;
                         data = mContext.getContentResolver().query(QUERY_URI, PROJECTION, getPageSelection(bucketId), getPageSelectionArgs(bucketId), orderBy);
                     }
+                    if (isCanceled()) {
+                        // Superseded, don't build the result
+                        return new MediaData();
+                    }
                     if (data != null) {
                         ArrayList<LocalMedia> result = new ArrayList<>();
                         if (data.getCount() > 0) {
@@ -302,7 +317,7 @@ public final class LocalMediaPageLoader extends IBridgeMediaLoader {
                                 LocalMedia image = LocalMedia.parseLocalMedia(id, url, absolutePath, fileName, folderName, duration, config.chooseMode, mimeType, width, height, size, bucket_id, data.getLong(dateAddedColumn));
                                 result.add(image);
 
-                            } while (data.moveToNext());
+                            } while (!isCanceled() && data.moveToNext());
                         }
                         if (bucketId == PictureConfig.ALL && page == 1) {
                             List<LocalMedia> list = SandboxFileLoader.loadInAppSandboxFile(mContext,config.sandboxDir);
@@ -328,19 +343,86 @@ public final class LocalMediaPageLoader extends IBridgeMediaLoader {
             @Override
             public void onSuccess(MediaData result) {
                 PictureThreadUtils.cancel(this);
-                if (listener != null) {
-                    listener.onComplete(result.data != null ? result.data : new ArrayList<>(), result.isHasNextMore);
+                removeInFlightQuery(key, pageQuery);
+                ArrayList<LocalMedia> data = result.data != null ? result.data : new ArrayList<>();
+                for (int i = 0; i < pageQuery.listeners.size(); i++) {
+                    OnQueryDataResultListener<LocalMedia> callback = pageQuery.listeners.get(i);
+                    if (callback != null) {
+                        // Each listener gets its own list, callers append to it
+                        callback.onComplete(i == 0 ? data : new ArrayList<>(data), result.isHasNextMore);
+                    }
                 }
             }
-        });
+
+            @Override
+            public void onCancel() {
+                removeInFlightQuery(key, pageQuery);
+            }
+        };
+        synchronized (mInFlightQueries) {
+            PageQuery query = mInFlightQueries.get(key);
+            if (query != null) {
+                // The same query is in flight, wait for its result
+                query.listeners.add(listener);
+                return;
+            }
+            if (page == 1) {
+                // Latest wins, the first page of an album the user has already left is discarded
+                Iterator<Map.Entry<String, PageQuery>> iterator = mInFlightQueries.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    PageQuery inFlightQuery = iterator.next().getValue();
+                    if (inFlightQuery.page == 1 && inFlightQuery.bucketId != bucketId) {
+                        iterator.remove();
+                        inFlightQuery.task.cancel();
+                    }
+                }
+            }
+            pageQuery.listeners.add(listener);
+            mInFlightQueries.put(key, pageQuery);
+        }
+        executeQuery(pageQuery.task);
+    }
+
+    private void removeInFlightQuery(String key, PageQuery query) {
+        synchronized (mInFlightQueries) {
+            if (mInFlightQueries.get(key) == query) {
+                mInFlightQueries.remove(key);
+            }
+        }
+    }
+
+    /**
+     * The query config which affects the result of a page query
+     */
+    private String getQueryConfigKey() {
+        return config.chooseMode + "_" + config.isOnlySandboxDir + "_" + config.isGif + "_" + config.isWebp
+                + "_" + config.isBmp + "_" + config.isFilterInvalidFile + "_" + config.filterMinFileSize
+                + "_" + config.filterMaxFileSize + "_" + config.filterVideoMinSecond + "_" + config.filterVideoMaxSecond
+                + "_" + config.sortOrder + "_" + config.queryOnlyList;
+    }
+
+    private static final class PageQuery {
+        final long bucketId;
+        final int page;
+        final List<OnQueryDataResultListener<LocalMedia>> listeners = new ArrayList<>();
+        PictureThreadUtils.SimpleTask<MediaData> task;
+
+        PageQuery(long bucketId, int page) {
+            this.bucketId = bucketId;
+            this.page = page;
+        }
     }
 
     @Override
     public void loadOnlyInAppDirAllMedia(OnQueryAlbumListener<LocalMediaFolder> query) {
-        PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<LocalMediaFolder>() {
+        executeQuery(new PictureThreadUtils.SimpleTask<LocalMediaFolder>() {
 
             @Override
             public LocalMediaFolder doInBackground() {
+                if (config.isPageStrategy) {
+                    // 分页模式下目录只包含第一页数据，后续通过loadPageMediaData加载
+                    return SandboxFileLoader.loadInAppSandboxFolderPage(mContext, config.sandboxDir, config.pageSize);
+                }
                 return SandboxFileLoader.loadInAppSandboxFolderFile(mContext, config.sandboxDir);
             }
 
@@ -361,7 +443,7 @@ public final class LocalMediaPageLoader extends IBridgeMediaLoader {
      */
     @Override
     public void loadAllAlbum(OnQueryAllAlbumListener<LocalMediaFolder> query) {
-        PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<List<LocalMediaFolder>>() {
+        executeQuery(new PictureThreadUtils.SimpleTask<List<LocalMediaFolder>>() {
             @Override
             public List<LocalMediaFolder> doInBackground() {
                 Cursor data = mContext.getContentResolver().query(QUERY_URI,
@@ -407,7 +489,7 @@ public final class LocalMediaPageLoader extends IBridgeMediaLoader {
                                         mediaFolders.add(mediaFolder);
                                         hashSet.add(bucketId);
                                         totalCount += size;
-                                    } while (data.moveToNext());
+                                    } while (!isCanceled() && data.moveToNext());
                                 }
 
                             } else {
@@ -426,7 +508,7 @@ public final class LocalMediaPageLoader extends IBridgeMediaLoader {
                                     mediaFolder.setFolderTotalNum(size);
                                     mediaFolders.add(mediaFolder);
                                     totalCount += size;
-                                } while (data.moveToNext());
+                                } while (!isCanceled() && data.moveToNext());
                             }
 
                             // 相机胶卷
@@ -8,18 +8,15 @@ import com.luck.picture.lib.config.PictureSelectionConfig;
 import com.luck.picture.lib.config.SelectMimeType;
 import com.luck.picture.lib.entity.LocalMedia;
 import com.luck.picture.lib.entity.LocalMediaFolder;
+import com.luck.picture.lib.entity.MediaData;
 import com.luck.picture.lib.entity.MediaExtraInfo;
-import com.luck.picture.lib.utils.MediaUtils;
+import com.luck.picture.lib.utils.MediaMetadataProber;
 import com.luck.picture.lib.utils.SdkVersionUtils;
-import com.luck.picture.lib.utils.SortUtils;
 import com.luck.picture.lib.utils.ValueOf;
 
 import java.io.File;
-import java.io.FileFilter;
-import java.math.BigInteger;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author：luck
@@ -28,6 +25,10 @@ import java.util.ArrayList;
  */
 public final class SandboxFileLoader {
 
+    private static final Object LOCK = new Object();
+
+    private static PageIndex pageIndex;
+
     /**
      * 查询应用内部目录的图片
      *
@@ -38,7 +39,7 @@ public final class SandboxFileLoader {
         ArrayList<LocalMedia> list = loadInAppSandboxFile(context, sandboxDir);
         LocalMediaFolder folder = null;
         if (list != null && list.size() > 0) {
-            SortUtils.sortLocalMediaAddedTime(list);
+            // 清单已按修改时间倒序排列
             LocalMedia firstMedia = list.get(0);
             folder = new LocalMediaFolder();
             folder.setFolderName(firstMedia.getParentFolderName());
@@ -65,104 +66,277 @@ public final class SandboxFileLoader {
         ArrayList<LocalMedia> list = new ArrayList<>();
         File sandboxFile = new File(sandboxDir);
         if (sandboxFile.exists()) {
-            File[] files = sandboxFile.listFiles(new FileFilter() {
-                @Override
-                public boolean accept(File file) {
-                    return !file.isDirectory();
-                }
-            });
-            if (files == null) {
-                return list;
-            }
             PictureSelectionConfig config = PictureSelectionConfig.getInstance();
-            MessageDigest md = null;
-            try {
-                md = MessageDigest.getInstance("MD5");
-            } catch (NoSuchAlgorithmException e) {
-                e.printStackTrace();
-            }
-            for (File f : files) {
-                String mimeType = MediaUtils.getMimeTypeFromMediaUrl(f.getAbsolutePath());
-
-                if (config.chooseMode == SelectMimeType.ofImage()) {
-                    if (!PictureMimeType.isHasImage(mimeType)) {
-                        continue;
-                    }
-                } else if (config.chooseMode == SelectMimeType.ofVideo()) {
-                    if (!PictureMimeType.isHasVideo(mimeType)) {
-                        continue;
-                    }
-                } else if (config.chooseMode == SelectMimeType.ofAudio()) {
-                    if (!PictureMimeType.isHasAudio(mimeType)) {
-                        continue;
-                    }
+            SandboxManifest manifest = obtainManifest(context, sandboxFile, config);
+            for (SandboxManifest.Entry entry : manifest.getEntries()) {
+                LocalMedia media = buildLocalMedia(config, manifest, entry);
+                if (media != null) {
+                    list.add(media);
                 }
+            }
+        }
+        return list;
+    }
 
-                if (config.queryOnlyList != null
-                        && config.queryOnlyList.size() > 0
-                        && !config.queryOnlyList.contains(mimeType)) {
-                    continue;
-                }
+    /**
+     * 分页查询应用内部目录的图片，按修改时间倒序，首页包含在返回的目录中
+     *
+     * @param context    上下文
+     * @param sandboxDir 资源目标路径
+     * @param pageSize   每页数量
+     */
+    public static LocalMediaFolder loadInAppSandboxFolderPage(Context context, String sandboxDir, int pageSize) {
+        MediaData firstPage = loadInAppSandboxPageFile(context, sandboxDir, 1, pageSize, pageSize);
+        if (firstPage.data.size() == 0) {
+            return null;
+        }
+        LocalMedia firstMedia = firstPage.data.get(0);
+        LocalMediaFolder folder = new LocalMediaFolder();
+        folder.setFolderName(firstMedia.getParentFolderName());
+        folder.setFirstImagePath(firstMedia.getPath());
+        folder.setFirstMimeType(firstMedia.getMimeType());
+        folder.setBucketId(firstMedia.getBucketId());
+        folder.setFolderTotalNum(getInAppSandboxPageIndexSize(sandboxDir));
+        folder.setCurrentDataPage(1);
+        folder.setHasMore(firstPage.isHasNextMore);
+        folder.setData(firstPage.data);
+        return folder;
+    }
 
-                if (!config.isGif) {
-                    if (PictureMimeType.isHasGif(mimeType)) {
-                        continue;
-                    }
-                }
-                String absolutePath = f.getAbsolutePath();
-                long size = f.length();
-                long id;
-                if (md != null) {
-                    md.update(absolutePath.getBytes());
-                    id = new BigInteger(1, md.digest()).longValue();
-                } else {
-                    id = f.lastModified() / 1000;
-                }
-                long bucketId = ValueOf.toLong(sandboxFile.getName().hashCode());
-                long dateTime = f.lastModified() / 1000;
-                long duration;
-                int width, height;
-                if (PictureMimeType.isHasVideo(mimeType)) {
-                    MediaExtraInfo videoSize = MediaUtils.getVideoSize(context, absolutePath);
-                    width = videoSize.getWidth();
-                    height = videoSize.getHeight();
-                    duration = videoSize.getDuration();
-                } else if (PictureMimeType.isHasAudio(mimeType)) {
-                    MediaExtraInfo audioSize = MediaUtils.getAudioSize(context, absolutePath);
-                    width = audioSize.getWidth();
-                    height = audioSize.getHeight();
-                    duration = audioSize.getDuration();
-                } else {
-                    MediaExtraInfo imageSize = MediaUtils.getImageSize(context, absolutePath);
-                    width = imageSize.getWidth();
-                    height = imageSize.getHeight();
-                    duration = 0L;
-                }
+    /**
+     * 分页查询应用内部目录的图片，按修改时间倒序
+     *
+     * @param context    上下文
+     * @param sandboxDir 资源目标路径
+     * @param page       页码，从1开始
+     * @param pageSize   每页数量
+     */
+    public static MediaData loadInAppSandboxPageFile(Context context, String sandboxDir, int page, int pageSize) {
+        return loadInAppSandboxPageFile(context, sandboxDir, page, pageSize, pageSize);
+    }
 
-                if (PictureMimeType.isHasVideo(mimeType) || PictureMimeType.isHasAudio(mimeType)) {
-                    if (config.filterVideoMinSecond > 0 && duration < config.filterVideoMinSecond) {
-                        // If you set the minimum number of seconds of video to display
-                        continue;
-                    }
-                    if (config.filterVideoMaxSecond > 0 && duration > config.filterVideoMaxSecond) {
-                        // If you set the maximum number of seconds of video to display
-                        continue;
-                    }
-                    if (duration == 0) {
-                        //If the length is 0, the corrupted video is processed and filtered out
-                        continue;
-                    }
-                    if (size <= 0) {
-                        // The video size is 0 to filter out
-                        continue;
-                    }
+    /**
+     * 分页查询应用内部目录的图片，按修改时间倒序
+     * <p>
+     * 第一页时重新与目录清单比对并建立索引，之后的页直接从缓存的索引中截取，
+     * 只有当前页的图片才会解析宽高；视频、音频需按时长过滤，建立索引时即解析。
+     * isHasNextMore与{@link LocalMediaPageLoader}一致，本页有数据即为true
+     * </p>
+     *
+     * @param context    上下文
+     * @param sandboxDir 资源目标路径
+     * @param page       页码，从1开始
+     * @param limit      本页数量
+     * @param pageSize   每页数量
+     */
+    public static MediaData loadInAppSandboxPageFile(Context context, String sandboxDir, int page, int limit, int pageSize) {
+        if (TextUtils.isEmpty(sandboxDir) || page < 1 || limit <= 0) {
+            return new MediaData(false, new ArrayList<>());
+        }
+        File sandboxFile = new File(sandboxDir);
+        if (!sandboxFile.exists()) {
+            return new MediaData(false, new ArrayList<>());
+        }
+        PictureSelectionConfig config = PictureSelectionConfig.getInstance();
+        synchronized (LOCK) {
+            PageIndex index = pageIndex;
+            if (page == 1 || index == null || !index.sandboxDir.equals(sandboxFile.getAbsolutePath())) {
+                index = buildPageIndex(context, sandboxFile, config);
+                pageIndex = index;
+            }
+            int fromIndex = Math.min((page - 1) * pageSize, index.entries.size());
+            int toIndex = Math.min(fromIndex + limit, index.entries.size());
+            List<SandboxManifest.Entry> pageEntries = index.entries.subList(fromIndex, toIndex);
+            probe(context, index.manifest, pageEntries);
+            index.manifest.save();
+            ArrayList<LocalMedia> result = new ArrayList<>(pageEntries.size());
+            for (SandboxManifest.Entry entry : pageEntries) {
+                result.add(toLocalMedia(config, index.manifest, entry));
+            }
+            return new MediaData(result.size() > 0, result);
+        }
+    }
+
+    /**
+     * 当前分页索引的总数
+     */
+    private static int getInAppSandboxPageIndexSize(String sandboxDir) {
+        synchronized (LOCK) {
+            PageIndex index = pageIndex;
+            return index != null && index.sandboxDir.equals(new File(sandboxDir).getAbsolutePath())
+                    ? index.entries.size() : 0;
+        }
+    }
+
+    /**
+     * 释放缓存的分页索引
+     */
+    public static void releasePageIndex() {
+        synchronized (LOCK) {
+            pageIndex = null;
+        }
+    }
+
+    /**
+     * 建立按修改时间倒序的分页索引，图片延迟到所在页加载时再解析
+     */
+    private static PageIndex buildPageIndex(Context context, File sandboxFile, PictureSelectionConfig config) {
+        SandboxManifest manifest = SandboxManifest.load(context, sandboxFile);
+        manifest.update();
+        List<SandboxManifest.Entry> mediaEntries = new ArrayList<>();
+        for (SandboxManifest.Entry entry : manifest.getEntries()) {
+            if (isAcceptMimeType(config, entry.mimeType)
+                    && (PictureMimeType.isHasVideo(entry.mimeType) || PictureMimeType.isHasAudio(entry.mimeType))) {
+                mediaEntries.add(entry);
+            }
+        }
+        probe(context, manifest, mediaEntries);
+        manifest.save();
+        List<SandboxManifest.Entry> entries = new ArrayList<>();
+        for (SandboxManifest.Entry entry : manifest.getEntries()) {
+            if (!isAcceptMimeType(config, entry.mimeType)) {
+                continue;
+            }
+            if (entry.isProbed && !isAcceptDuration(config, entry)) {
+                continue;
+            }
+            entries.add(entry);
+        }
+        return new PageIndex(sandboxFile.getAbsolutePath(), manifest, entries);
+    }
+
+    /**
+     * 读取并更新目录清单，只解析新增或被修改且符合查询条件的文件
+     */
+    private static SandboxManifest obtainManifest(Context context, File sandboxFile, PictureSelectionConfig config) {
+        synchronized (LOCK) {
+            SandboxManifest manifest = SandboxManifest.load(context, sandboxFile);
+            manifest.update();
+            List<SandboxManifest.Entry> acceptEntries = new ArrayList<>();
+            for (SandboxManifest.Entry entry : manifest.getEntries()) {
+                if (isAcceptMimeType(config, entry.mimeType)) {
+                    acceptEntries.add(entry);
                 }
-                LocalMedia media = LocalMedia.parseLocalMedia(id, absolutePath, absolutePath, f.getName(),
-                        sandboxFile.getName(), duration, config.chooseMode, mimeType, width, height, size, bucketId, dateTime);
-                media.setSandboxPath(SdkVersionUtils.isQ() ? absolutePath : null);
-                list.add(media);
             }
+            probe(context, manifest, acceptEntries);
+            manifest.save();
+            return manifest;
+        }
+    }
+
+    /**
+     * 批量解析尚未解析的文件
+     */
+    private static void probe(Context context, SandboxManifest manifest, List<SandboxManifest.Entry> entries) {
+        List<SandboxManifest.Entry> unProbedEntries = new ArrayList<>();
+        for (SandboxManifest.Entry entry : entries) {
+            if (!entry.isProbed) {
+                unProbedEntries.add(entry);
+            }
+        }
+        if (unProbedEntries.size() > 0) {
+            File[] files = new File[unProbedEntries.size()];
+            String[] mimeTypes = new String[unProbedEntries.size()];
+            for (int i = 0; i < unProbedEntries.size(); i++) {
+                SandboxManifest.Entry entry = unProbedEntries.get(i);
+                files[i] = manifest.getFile(entry);
+                mimeTypes[i] = entry.mimeType;
+            }
+            MediaExtraInfo[] extraInfos = MediaMetadataProber.probe(context, files, mimeTypes);
+            for (int i = 0; i < extraInfos.length; i++) {
+                manifest.setProbed(unProbedEntries.get(i), extraInfos[i]);
+            }
+        }
+    }
+
+    private static boolean isAcceptMimeType(PictureSelectionConfig config, String mimeType) {
+        if (config.chooseMode == SelectMimeType.ofImage()) {
+            if (!PictureMimeType.isHasImage(mimeType)) {
+                return false;
+            }
+        } else if (config.chooseMode == SelectMimeType.ofVideo()) {
+            if (!PictureMimeType.isHasVideo(mimeType)) {
+                return false;
+            }
+        } else if (config.chooseMode == SelectMimeType.ofAudio()) {
+            if (!PictureMimeType.isHasAudio(mimeType)) {
+                return false;
+            }
+        }
+
+        if (config.queryOnlyList != null
+                && config.queryOnlyList.size() > 0
+                && !config.queryOnlyList.contains(mimeType)) {
+            return false;
+        }
+
+        if (!config.isGif) {
+            if (PictureMimeType.isHasGif(mimeType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static LocalMedia buildLocalMedia(PictureSelectionConfig config, SandboxManifest manifest,
+                                              SandboxManifest.Entry entry) {
+        if (!entry.isProbed || !isAcceptMimeType(config, entry.mimeType) || !isAcceptDuration(config, entry)) {
+            return null;
+        }
+        return toLocalMedia(config, manifest, entry);
+    }
+
+    private static boolean isAcceptDuration(PictureSelectionConfig config, SandboxManifest.Entry entry) {
+        if (PictureMimeType.isHasVideo(entry.mimeType) || PictureMimeType.isHasAudio(entry.mimeType)) {
+            long duration = entry.duration;
+            if (config.filterVideoMinSecond > 0 && duration < config.filterVideoMinSecond) {
+                // If you set the minimum number of seconds of video to display
+                return false;
+            }
+            if (config.filterVideoMaxSecond > 0 && duration > config.filterVideoMaxSecond) {
+                // If you set the maximum number of seconds of video to display
+                return false;
+            }
+            if (duration == 0) {
+                //If the length is 0, the corrupted video is processed and filtered out
+                return false;
+            }
+            if (entry.size <= 0) {
+                // The video size is 0 to filter out
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static LocalMedia toLocalMedia(PictureSelectionConfig config, SandboxManifest manifest,
+                                           SandboxManifest.Entry entry) {
+        String mimeType = entry.mimeType;
+        long duration = PictureMimeType.isHasVideo(mimeType) || PictureMimeType.isHasAudio(mimeType)
+                ? entry.duration : 0L;
+        File file = manifest.getFile(entry);
+        String absolutePath = file.getAbsolutePath();
+        String folderName = file.getParentFile() != null ? file.getParentFile().getName() : "";
+        long bucketId = ValueOf.toLong(folderName.hashCode());
+        long dateTime = entry.lastModified / 1000;
+        LocalMedia media = LocalMedia.parseLocalMedia(entry.id, absolutePath, absolutePath, entry.name,
+                folderName, duration, config.chooseMode, mimeType, entry.width, entry.height, entry.size, bucketId, dateTime);
+        media.setSandboxPath(SdkVersionUtils.isQ() ? absolutePath : null);
+        return media;
+    }
+
+    /**
+     * 按修改时间倒序的分页索引
+     */
+    private static final class PageIndex {
+        final String sandboxDir;
+        final SandboxManifest manifest;
+        final List<SandboxManifest.Entry> entries;
+
+        PageIndex(String sandboxDir, SandboxManifest manifest, List<SandboxManifest.Entry> entries) {
+            this.sandboxDir = sandboxDir;
+            this.manifest = manifest;
+            this.entries = entries;
         }
-        return list;
     }
 }
@@ -0,0 +1,267 @@
+package com.luck.picture.lib.loader;
+
+import android.content.Context;
+
+import com.luck.picture.lib.entity.MediaExtraInfo;
+import com.luck.picture.lib.utils.MediaUtils;
+import com.luck.picture.lib.utils.PictureFileUtils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @describe：应用沙盒目录清单
+ * <p>
+ * 记录目录内每个文件的名称、大小、修改时间、mimeType、宽高、时长和id，按修改时间倒序保存；
+ * 再次加载时只与清单做差异比对，未变化的文件无需重新识别类型、计算id和解析宽高。
+ */
+final class SandboxManifest {
+
+    private static final String MANIFEST_DIR_NAME = "PictureSandboxManifest";
+
+    static final class Entry {
+        String name;
+        long size;
+        long lastModified;
+        String mimeType;
+        int width;
+        int height;
+        long duration;
+        long id;
+        /**
+         * 是否已解析宽高、时长
+         */
+        boolean isProbed;
+    }
+
+    private static final Comparator<Entry> LAST_MODIFIED_DESC = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry lhs, Entry rhs) {
+            int result = Long.compare(rhs.lastModified, lhs.lastModified);
+            return result != 0 ? result : lhs.name.compareTo(rhs.name);
+        }
+    };
+
+    private final File sandboxDir;
+
+    private final File manifestFile;
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    private boolean isDirty;
+
+    private SandboxManifest(File sandboxDir, File manifestFile) {
+        this.sandboxDir = sandboxDir;
+        this.manifestFile = manifestFile;
+    }
+
+    /**
+     * 读取目录清单，不存在时为空清单
+     *
+     * @param context
+     * @param sandboxDir
+     * @return
+     */
+    static SandboxManifest load(Context context, File sandboxDir) {
+        File dir = new File(context.getCacheDir(), MANIFEST_DIR_NAME);
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        SandboxManifest manifest = new SandboxManifest(sandboxDir,
+                new File(dir, md5(sandboxDir.getAbsolutePath()) + ".json"));
+        manifest.read();
+        return manifest;
+    }
+
+    /**
+     * 按修改时间倒序排列的文件清单
+     */
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    File getFile(Entry entry) {
+        return new File(sandboxDir, entry.name);
+    }
+
+    /**
+     * 与目录中的文件做差异比对：新增或被修改的文件重新识别，被删除的文件移出清单
+     *
+     * @return 清单是否有变化
+     */
+    boolean update() {
+        File[] files = sandboxDir.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return !file.isDirectory();
+            }
+        });
+        if (files == null) {
+            files = new File[0];
+        }
+        Map<String, Entry> oldEntries = new HashMap<>(entries.size());
+        for (Entry entry : entries) {
+            oldEntries.put(entry.name, entry);
+        }
+        List<Entry> newEntries = new ArrayList<>(files.length);
+        boolean isChanged = files.length != entries.size();
+        for (File file : files) {
+            long size = file.length();
+            long lastModified = file.lastModified();
+            Entry entry = oldEntries.get(file.getName());
+            if (entry == null || entry.size != size || entry.lastModified != lastModified) {
+                String absolutePath = file.getAbsolutePath();
+                entry = new Entry();
+                entry.name = file.getName();
+                entry.size = size;
+                entry.lastModified = lastModified;
+                entry.mimeType = MediaUtils.getMimeTypeFromMediaUrl(absolutePath);
+                entry.id = generateId(absolutePath, lastModified);
+                isChanged = true;
+            }
+            newEntries.add(entry);
+        }
+        if (isChanged) {
+            Collections.sort(newEntries, LAST_MODIFIED_DESC);
+            entries.clear();
+            entries.addAll(newEntries);
+            isDirty = true;
+        }
+        return isChanged;
+    }
+
+    /**
+     * 写入解析结果
+     *
+     * @param entry
+     * @param extraInfo
+     */
+    void setProbed(Entry entry, MediaExtraInfo extraInfo) {
+        entry.width = extraInfo.getWidth();
+        entry.height = extraInfo.getHeight();
+        entry.duration = extraInfo.getDuration();
+        entry.isProbed = true;
+        isDirty = true;
+    }
+
+    /**
+     * 有变化时写回磁盘
+     */
+    void save() {
+        if (!isDirty) {
+            return;
+        }
+        File tempFile = new File(manifestFile.getAbsolutePath() + ".tmp");
+        FileOutputStream fos = null;
+        try {
+            JSONArray array = new JSONArray();
+            for (Entry entry : entries) {
+                JSONObject item = new JSONObject();
+                item.put("name", entry.name);
+                item.put("size", entry.size);
+                item.put("mtime", entry.lastModified);
+                item.put("mime", entry.mimeType);
+                item.put("width", entry.width);
+                item.put("height", entry.height);
+                item.put("duration", entry.duration);
+                item.put("id", entry.id);
+                item.put("probed", entry.isProbed);
+                array.put(item);
+            }
+            JSONObject json = new JSONObject();
+            json.put("dir", sandboxDir.getAbsolutePath());
+            json.put("entries", array);
+            fos = new FileOutputStream(tempFile);
+            fos.write(json.toString().getBytes("UTF-8"));
+            fos.flush();
+            PictureFileUtils.close(fos);
+            fos = null;
+            if (tempFile.renameTo(manifestFile)) {
+                isDirty = false;
+            } else {
+                tempFile.delete();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            tempFile.delete();
+        } finally {
+            PictureFileUtils.close(fos);
+        }
+    }
+
+    private void read() {
+        if (!manifestFile.exists()) {
+            return;
+        }
+        InputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(manifestFile);
+            byte[] bytes = new byte[(int) manifestFile.length()];
+            int offset = 0;
+            for (int len; offset < bytes.length && (len = inputStream.read(bytes, offset, bytes.length - offset)) != -1; ) {
+                offset += len;
+            }
+            JSONObject json = new JSONObject(new String(bytes, 0, offset, "UTF-8"));
+            if (!sandboxDir.getAbsolutePath().equals(json.optString("dir"))) {
+                return;
+            }
+            JSONArray array = json.optJSONArray("entries");
+            if (array == null) {
+                return;
+            }
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject item = array.getJSONObject(i);
+                Entry entry = new Entry();
+                entry.name = item.getString("name");
+                entry.size = item.optLong("size");
+                entry.lastModified = item.optLong("mtime");
+                entry.mimeType = item.optString("mime");
+                entry.width = item.optInt("width");
+                entry.height = item.optInt("height");
+                entry.duration = item.optLong("duration");
+                entry.id = item.optLong("id");
+                entry.isProbed = item.optBoolean("probed");
+                entries.add(entry);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            entries.clear();
+            manifestFile.delete();
+        } finally {
+            PictureFileUtils.close(inputStream);
+        }
+    }
+
+    private static long generateId(String absolutePath, long lastModified) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            return new BigInteger(1, md.digest(absolutePath.getBytes())).longValue();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return lastModified / 1000;
+        }
+    }
+
+    private static String md5(String source) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            return new BigInteger(1, md.digest(source.getBytes())).toString(16);
+        } catch (Exception e) {
+            return String.valueOf(source.hashCode() & 0xffffffffL);
+        }
+    }
+}
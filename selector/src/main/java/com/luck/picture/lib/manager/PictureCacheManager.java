@@ -7,6 +7,7 @@ import com.luck.picture.lib.basic.PictureMediaScannerConnection;
 import com.luck.picture.lib.config.SelectMimeType;
 import com.luck.picture.lib.interfaces.OnCallbackListener;
 import com.luck.picture.lib.thread.PictureThreadUtils;
+import com.luck.picture.lib.utils.SandboxFileStore;
 
 import java.io.File;
 
@@ -17,6 +18,36 @@ import java.io.File;
  */
 public class PictureCacheManager {
 
+    /**
+     * 设置沙盒文件仓库最大占用空间
+     *
+     * @param maxSize
+     */
+    public static void setSandboxStoreMaxSize(long maxSize) {
+        SandboxFileStore.getInstance().setMaxSize(maxSize);
+    }
+
+    /**
+     * 淘汰沙盒文件仓库中未被引用的文件，直到不超过最大占用空间
+     * <p>
+     * 仓库不会自动淘汰文件，需在确认沙盒文件不再使用后调用
+     * </p>
+     *
+     * @param context
+     */
+    public static void trimSandboxStore(Context context) {
+        SandboxFileStore.getInstance().trim(context);
+    }
+
+    /**
+     * 清空沙盒文件仓库中未被引用的文件
+     *
+     * @param context
+     */
+    public static void deleteSandboxStoreFile(Context context) {
+        SandboxFileStore.getInstance().evictAll(context);
+    }
+
     /**
      * set empty PictureSelector Cache
      */
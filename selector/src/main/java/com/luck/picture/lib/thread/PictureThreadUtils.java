@@ -2,23 +2,34 @@ package com.luck.picture.lib.thread;
 
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.CallSuper;
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
 
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -38,8 +49,36 @@ public final class PictureThreadUtils {
 
     private static final Map<Task, ExecutorService> TASK_POOL_MAP = new ConcurrentHashMap<>();
 
+    private static final Map<LifecycleOwner, TaskGroup> LIFECYCLE_TASK_GROUPS = new WeakHashMap<>();
+
+    private static final AtomicInteger ORPHAN_TASK_COUNT = new AtomicInteger();
+
     private static final int   CPU_COUNT = Runtime.getRuntime().availableProcessors();
-    private static final Timer TIMER     = new Timer();
+    /**
+     * Shared by delayed, fixed rate and timeout scheduling, it only hands tasks over to their pools.
+     */
+    private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+    /**
+     * User-visible work such as page queries, always served first.
+     */
+    public static final int LANE_INTERACTIVE = 0;
+    /**
+     * Speculative work such as thumbnails. Queued tasks are dropped when they wait longer than
+     * {@link #PREFETCH_STALE_MILLIS} or on {@link #dropPrefetchTasks()}, a dropped task is cancelled
+     * and gets {@link Task#onCancel()}.
+     */
+    public static final int LANE_PREFETCH    = 1;
+    /**
+     * Bulk work such as copies and downloads, never takes more than half of the lane threads.
+     */
+    public static final int LANE_BACKGROUND  = 2;
+
+    private static final long PREFETCH_STALE_MILLIS = 3000;
+
+    private static final long LANE_KEEP_ALIVE_MILLIS = 30 * 1000;
+
+    private static final LaneScheduler LANE_SCHEDULER = new LaneScheduler(2 * CPU_COUNT + 1);
 
     private static final byte TYPE_SINGLE = -1;
     private static final byte TYPE_CACHED = -2;
@@ -189,6 +228,36 @@ public final class PictureThreadUtils {
         return getPoolByTypeAndPriority(TYPE_CPU, priority);
     }
 
+    /**
+     * Return the pool of the given lane. Queued tasks of a lower lane yield to
+     * those of a higher lane, and one thread is always kept for interactive tasks.
+     *
+     * @param lane {@link #LANE_INTERACTIVE}, {@link #LANE_PREFETCH} or {@link #LANE_BACKGROUND}
+     * @return the pool of the lane
+     */
+    public static ExecutorService getLanePool(@IntRange(from = LANE_INTERACTIVE, to = LANE_BACKGROUND) final int lane) {
+        return LANE_SCHEDULER.getLanePool(lane);
+    }
+
+    /**
+     * Executes the given task in the pool of the given lane.
+     *
+     * @param lane {@link #LANE_INTERACTIVE}, {@link #LANE_PREFETCH} or {@link #LANE_BACKGROUND}
+     * @param task The task to execute.
+     * @param <T>  The type of the task's result.
+     */
+    public static <T> void executeByLane(@IntRange(from = LANE_INTERACTIVE, to = LANE_BACKGROUND) final int lane,
+                                         final Task<T> task) {
+        execute(getLanePool(lane), task);
+    }
+
+    /**
+     * Drop all queued prefetch tasks, e.g. when the user switches to another album.
+     */
+    public static void dropPrefetchTasks() {
+        LANE_SCHEDULER.dropQueued(LANE_PREFETCH);
+    }
+
     /**
      * Executes the given task in a fixed thread pool.
      *
@@ -895,7 +964,7 @@ public final class PictureThreadUtils {
      * @param executorService The pool.
      */
     public static void cancel(ExecutorService executorService) {
-        if (executorService instanceof ThreadPoolExecutor4Util) {
+        if (executorService instanceof ThreadPoolExecutor4Util || executorService instanceof LaneExecutorService) {
             for (Map.Entry<Task, ExecutorService> taskTaskInfoEntry : TASK_POOL_MAP.entrySet()) {
                 if (taskTaskInfoEntry.getValue() == executorService) {
                     cancel(taskTaskInfoEntry.getKey());
@@ -915,6 +984,66 @@ public final class PictureThreadUtils {
         sDeliver = deliver;
     }
 
+    /**
+     * Return the task group bound to the lifecycle of the owner,
+     * all of its tasks will be cancelled when the owner is destroyed.
+     *
+     * @param owner The lifecycle owner.
+     * @return the task group
+     */
+    public static TaskGroup getTaskGroup(@NonNull final LifecycleOwner owner) {
+        synchronized (LIFECYCLE_TASK_GROUPS) {
+            TaskGroup group = LIFECYCLE_TASK_GROUPS.get(owner);
+            if (group == null) {
+                group = new TaskGroup();
+                LIFECYCLE_TASK_GROUPS.put(owner, group);
+                final TaskGroup observer = group;
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+                            observer.onStateChanged(owner, Lifecycle.Event.ON_DESTROY);
+                        } else {
+                            owner.getLifecycle().addObserver(observer);
+                        }
+                    }
+                });
+            }
+            return group;
+        }
+    }
+
+    /**
+     * Executes the given task in an IO thread pool,
+     * the task will be cancelled when the owner is destroyed.
+     *
+     * @param owner The lifecycle owner.
+     * @param task  The task to execute.
+     * @param <T>   The type of the task's result.
+     */
+    public static <T> void executeByIo(final LifecycleOwner owner, final Task<T> task) {
+        getTaskGroup(owner).executeByIo(task);
+    }
+
+    /**
+     * Return the number of tasks which have been executed but not done.
+     *
+     * @return the number of in-flight tasks
+     */
+    public static int getInFlightTaskCount() {
+        return TASK_POOL_MAP.size();
+    }
+
+    /**
+     * Return the number of tasks which were cancelled by a destroyed task group
+     * but are still running in the background.
+     *
+     * @return the number of orphan tasks
+     */
+    public static int getOrphanTaskCount() {
+        return ORPHAN_TASK_COUNT.get();
+    }
+
     private static <T> void execute(final ExecutorService pool, final Task<T> task) {
         execute(pool, task, 0, 0, null);
     }
@@ -943,30 +1072,32 @@ public final class PictureThreadUtils {
             }
             TASK_POOL_MAP.put(task, pool);
         }
+        Runnable command = new Runnable() {
+            @Override
+            public void run() {
+                pool.execute(task);
+            }
+        };
         if (period == 0) {
             if (delay == 0) {
                 pool.execute(task);
             } else {
-                TimerTask timerTask = new TimerTask() {
-                    @Override
-                    public void run() {
-                        pool.execute(task);
-                    }
-                };
-                TIMER.schedule(timerTask, unit.toMillis(delay));
+                task.setScheduleFuture(SCHEDULER.schedule(command, delay, unit));
             }
         } else {
             task.setSchedule(true);
-            TimerTask timerTask = new TimerTask() {
-                @Override
-                public void run() {
-                    pool.execute(task);
-                }
-            };
-            TIMER.scheduleAtFixedRate(timerTask, unit.toMillis(delay), unit.toMillis(period));
+            task.setScheduleFuture(SCHEDULER.scheduleAtFixedRate(command, delay, period, unit));
         }
     }
 
+    private static ScheduledExecutorService createScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                new UtilsThreadFactory("schedule", Thread.NORM_PRIORITY, true));
+        // cancelled timeouts are removed at once instead of piling up until their delay
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
     private static ExecutorService getPoolByTypeAndPriority(final int type) {
         return getPoolByTypeAndPriority(type, Thread.NORM_PRIORITY);
     }
@@ -1070,6 +1201,186 @@ public final class PictureThreadUtils {
         }
     }
 
+    private static final class LaneScheduler {
+
+        private static final class LaneCommand {
+            final int      lane;
+            final Runnable command;
+            final long     enqueueTime;
+
+            LaneCommand(int lane, Runnable command, long enqueueTime) {
+                this.lane = lane;
+                this.command = command;
+                this.enqueueTime = enqueueTime;
+            }
+        }
+
+        private final ArrayDeque<LaneCommand>[] mQueues;
+        private final LaneExecutorService[]     mLanePools;
+        private final int[]                     mRunningCounts;
+        private final int                       mMaxThreadCount;
+        private final ThreadFactory             mThreadFactory;
+        private       int                       mThreadCount;
+        private       int                       mIdleThreadCount;
+
+        @SuppressWarnings("unchecked")
+        LaneScheduler(int maxThreadCount) {
+            int laneCount = LANE_BACKGROUND + 1;
+            mMaxThreadCount = maxThreadCount;
+            mQueues = new ArrayDeque[laneCount];
+            mLanePools = new LaneExecutorService[laneCount];
+            mRunningCounts = new int[laneCount];
+            for (int lane = 0; lane < laneCount; lane++) {
+                mQueues[lane] = new ArrayDeque<>();
+                mLanePools[lane] = new LaneExecutorService(this, lane);
+            }
+            mThreadFactory = new UtilsThreadFactory("lane", Thread.NORM_PRIORITY);
+        }
+
+        ExecutorService getLanePool(int lane) {
+            return mLanePools[lane];
+        }
+
+        synchronized void enqueue(int lane, Runnable command) {
+            mQueues[lane].offer(new LaneCommand(lane, command, SystemClock.uptimeMillis()));
+            if (mIdleThreadCount > 0) {
+                notifyAll();
+            } else if (mThreadCount < mMaxThreadCount) {
+                mThreadCount++;
+                mThreadFactory.newThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        runWorker();
+                    }
+                }).start();
+            }
+        }
+
+        synchronized void dropQueued(int lane) {
+            LaneCommand command;
+            while ((command = mQueues[lane].poll()) != null) {
+                drop(command);
+            }
+        }
+
+        private void runWorker() {
+            for (; ; ) {
+                LaneCommand command;
+                synchronized (this) {
+                    long deadline = SystemClock.uptimeMillis() + LANE_KEEP_ALIVE_MILLIS;
+                    while ((command = poll()) == null) {
+                        long remaining = deadline - SystemClock.uptimeMillis();
+                        if (remaining <= 0) {
+                            // idle for too long, same as the keep alive of the other pools
+                            mThreadCount--;
+                            return;
+                        }
+                        mIdleThreadCount++;
+                        try {
+                            wait(remaining);
+                        } catch (InterruptedException ignore) {
+                        } finally {
+                            mIdleThreadCount--;
+                        }
+                    }
+                    mRunningCounts[command.lane]++;
+                }
+                // clear the interruption left by a cancelled task
+                Thread.interrupted();
+                try {
+                    command.command.run();
+                } catch (Throwable t) {
+                    t.printStackTrace();
+                } finally {
+                    synchronized (this) {
+                        mRunningCounts[command.lane]--;
+                        notifyAll();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Must be called with the lock held.
+         */
+        private LaneCommand poll() {
+            LaneCommand command = mQueues[LANE_INTERACTIVE].poll();
+            if (command != null) {
+                return command;
+            }
+            int running = mRunningCounts[LANE_PREFETCH] + mRunningCounts[LANE_BACKGROUND];
+            if (running < mMaxThreadCount - 1) {
+                long staleTime = SystemClock.uptimeMillis() - PREFETCH_STALE_MILLIS;
+                while ((command = mQueues[LANE_PREFETCH].poll()) != null) {
+                    if (command.enqueueTime >= staleTime) {
+                        return command;
+                    }
+                    drop(command);
+                }
+                if (mRunningCounts[LANE_BACKGROUND] < Math.max(1, mMaxThreadCount / 2)) {
+                    return mQueues[LANE_BACKGROUND].poll();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Cancel a task that will never run, so that its owner is notified.
+         */
+        private static void drop(LaneCommand command) {
+            if (command.command instanceof Task) {
+                // delivers onCancel on the task's deliver thread
+                ((Task) command.command).cancel(false);
+            } else if (command.command instanceof Future) {
+                ((Future<?>) command.command).cancel(false);
+            }
+        }
+    }
+
+    private static final class LaneExecutorService extends AbstractExecutorService {
+
+        private final LaneScheduler mScheduler;
+        private final int           mLane;
+
+        LaneExecutorService(LaneScheduler scheduler, int lane) {
+            mScheduler = scheduler;
+            mLane = lane;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            mScheduler.enqueue(mLane, command);
+        }
+
+        /**
+         * The lanes are shared, they can't be shut down.
+         */
+        @Override
+        public void shutdown() {
+        }
+
+        @NonNull
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) {
+            return false;
+        }
+    }
+
     private static final class LinkedBlockingQueue4Util extends LinkedBlockingQueue<Runnable> {
 
         private volatile ThreadPoolExecutor4Util mPool;
@@ -1147,6 +1458,96 @@ public final class PictureThreadUtils {
         }
     }
 
+    public static final class TaskGroup implements LifecycleEventObserver {
+
+        private final Set<Task> mTasks = Collections.newSetFromMap(new ConcurrentHashMap<Task, Boolean>());
+
+        private volatile boolean isCancelled;
+
+        TaskGroup() {
+        }
+
+        /**
+         * Executes the given task in an IO thread pool.
+         *
+         * @param task The task to execute.
+         * @param <T>  The type of the task's result.
+         */
+        public <T> void executeByIo(final Task<T> task) {
+            execute(getPoolByTypeAndPriority(TYPE_IO), task);
+        }
+
+        /**
+         * Executes the given task in a cpu thread pool.
+         *
+         * @param task The task to execute.
+         * @param <T>  The type of the task's result.
+         */
+        public <T> void executeByCpu(final Task<T> task) {
+            execute(getPoolByTypeAndPriority(TYPE_CPU), task);
+        }
+
+        /**
+         * Executes the given task in the pool of the given lane.
+         *
+         * @param lane {@link #LANE_INTERACTIVE}, {@link #LANE_PREFETCH} or {@link #LANE_BACKGROUND}
+         * @param task The task to execute.
+         * @param <T>  The type of the task's result.
+         */
+        public <T> void executeByLane(@IntRange(from = LANE_INTERACTIVE, to = LANE_BACKGROUND) final int lane,
+                                      final Task<T> task) {
+            execute(getLanePool(lane), task);
+        }
+
+        private <T> void execute(final ExecutorService pool, final Task<T> task) {
+            if (isCancelled) {
+                task.cancel(false);
+                return;
+            }
+            task.mGroup = this;
+            mTasks.add(task);
+            PictureThreadUtils.execute(pool, task);
+            if (isCancelled) {
+                task.cancelByGroup();
+            }
+        }
+
+        /**
+         * Return the number of tasks in the group which are not done.
+         */
+        public int getInFlightCount() {
+            return mTasks.size();
+        }
+
+        public boolean isCancelled() {
+            return isCancelled;
+        }
+
+        /**
+         * Cancel all tasks in the group, tasks executed later will be cancelled immediately.
+         */
+        public void cancelAll() {
+            isCancelled = true;
+            for (Task task : mTasks) {
+                task.cancelByGroup();
+            }
+            mTasks.clear();
+        }
+
+        @Override
+        public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                source.getLifecycle().removeObserver(this);
+                synchronized (LIFECYCLE_TASK_GROUPS) {
+                    if (LIFECYCLE_TASK_GROUPS.get(source) == this) {
+                        LIFECYCLE_TASK_GROUPS.remove(source);
+                    }
+                }
+                cancelAll();
+            }
+        }
+    }
+
     public abstract static class SimpleTask<T> extends Task<T> {
 
         @Override
@@ -1176,12 +1577,17 @@ public final class PictureThreadUtils {
         private volatile boolean isSchedule;
         private volatile Thread  runner;
 
-        private Timer             mTimer;
-        private long              mTimeoutMillis;
-        private OnTimeoutListener mTimeoutListener;
+        private volatile ScheduledFuture<?> mScheduleFuture;
+        private volatile ScheduledFuture<?> mTimeoutFuture;
+        private long                        mTimeoutMillis;
+        private OnTimeoutListener           mTimeoutListener;
 
         private Executor deliver;
 
+        private volatile TaskGroup     mGroup;
+        private volatile boolean       isRunningInBackground;
+        private final    AtomicBoolean isOrphan = new AtomicBoolean();
+
         public abstract T doInBackground() throws Throwable;
 
         public abstract void onSuccess(T result);
@@ -1206,19 +1612,20 @@ public final class PictureThreadUtils {
                 if (!state.compareAndSet(NEW, RUNNING)) return;
                 runner = Thread.currentThread();
                 if (mTimeoutListener != null) {
-                    mTimer = new Timer();
-                    mTimer.schedule(new TimerTask() {
+                    mTimeoutFuture = SCHEDULER.schedule(new Runnable() {
                         @Override
                         public void run() {
-                            if (!isDone() && mTimeoutListener != null) {
+                            OnTimeoutListener listener = mTimeoutListener;
+                            if (!isDone() && listener != null) {
                                 timeout();
-                                mTimeoutListener.onTimeout();
+                                listener.onTimeout();
                                 onDone();
                             }
                         }
-                    }, mTimeoutMillis);
+                    }, mTimeoutMillis, TimeUnit.MILLISECONDS);
                 }
             }
+            isRunningInBackground = true;
             try {
                 final T result = doInBackground();
                 if (isSchedule) {
@@ -1250,6 +1657,11 @@ public final class PictureThreadUtils {
                         onDone();
                     }
                 });
+            } finally {
+                isRunningInBackground = false;
+                if (isOrphan.compareAndSet(true, false)) {
+                    ORPHAN_TASK_COUNT.decrementAndGet();
+                }
             }
         }
 
@@ -1277,6 +1689,16 @@ public final class PictureThreadUtils {
             });
         }
 
+        private void cancelByGroup() {
+            if (isRunningInBackground && isOrphan.compareAndSet(false, true)) {
+                ORPHAN_TASK_COUNT.incrementAndGet();
+                if (!isRunningInBackground && isOrphan.compareAndSet(true, false)) {
+                    ORPHAN_TASK_COUNT.decrementAndGet();
+                }
+            }
+            cancel(true);
+        }
+
         private void timeout() {
             synchronized (state) {
                 if (state.get() > RUNNING) return;
@@ -1314,6 +1736,14 @@ public final class PictureThreadUtils {
             this.isSchedule = isSchedule;
         }
 
+        private void setScheduleFuture(ScheduledFuture<?> future) {
+            mScheduleFuture = future;
+            if (isDone()) {
+                // cancelled before the future was set
+                future.cancel(false);
+            }
+        }
+
         private Executor getDeliver() {
             if (deliver == null) {
                 return getGlobalDeliver();
@@ -1324,9 +1754,20 @@ public final class PictureThreadUtils {
         @CallSuper
         protected void onDone() {
             TASK_POOL_MAP.remove(this);
-            if (mTimer != null) {
-                mTimer.cancel();
-                mTimer = null;
+            TaskGroup group = mGroup;
+            if (group != null) {
+                group.mTasks.remove(this);
+                mGroup = null;
+            }
+            ScheduledFuture<?> scheduleFuture = mScheduleFuture;
+            if (scheduleFuture != null) {
+                scheduleFuture.cancel(false);
+                mScheduleFuture = null;
+            }
+            ScheduledFuture<?> timeoutFuture = mTimeoutFuture;
+            if (timeoutFuture != null) {
+                timeoutFuture.cancel(false);
+                mTimeoutFuture = null;
                 mTimeoutListener = null;
             }
         }
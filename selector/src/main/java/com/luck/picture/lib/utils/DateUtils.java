@@ -22,6 +22,7 @@ import java.util.Locale;
 public class DateUtils {
     @SuppressLint("SimpleDateFormat")
     private static final SimpleDateFormat SF = new SimpleDateFormat("yyyyMMddHHmmssSSS");
+    private static long lastCreateFileMillis;
     @SuppressLint("SimpleDateFormat")
     private static final SimpleDateFormat SDF = new SimpleDateFormat("yyyy-MM");
 
@@ -124,8 +125,7 @@ public class DateUtils {
      * @return
      */
     public static String getCreateFileName(String prefix) {
-        long millis = System.currentTimeMillis();
-        return prefix + SF.format(millis);
+        return prefix + getCreateFileName();
     }
 
     /**
@@ -134,8 +134,12 @@ public class DateUtils {
      * @return
      */
     public static String getCreateFileName() {
-        long millis = System.currentTimeMillis();
-        return SF.format(millis);
+        synchronized (SF) {
+            // SimpleDateFormat非线程安全；同一毫秒内多次调用时顺延1毫秒，保证文件名不重复
+            long millis = Math.max(System.currentTimeMillis(), lastCreateFileMillis + 1);
+            lastCreateFileMillis = millis;
+            return SF.format(millis);
+        }
     }
 
     /**
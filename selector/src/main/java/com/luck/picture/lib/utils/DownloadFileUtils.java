@@ -35,7 +35,7 @@ public class DownloadFileUtils {
      */
     public static void saveLocalFile(Context context, String path, String mimeType,
                                      OnCallbackListener<String> listener) {
-        PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<String>() {
+        PictureThreadUtils.executeByLane(PictureThreadUtils.LANE_BACKGROUND, new PictureThreadUtils.SimpleTask<String>() {
 
             @Override
             public String doInBackground() throws Throwable {
@@ -0,0 +1,261 @@
+package com.luck.picture.lib.utils;
+
+import android.content.Context;
+import android.net.Uri;
+import android.text.TextUtils;
+
+import com.luck.picture.lib.basic.PictureContentResolver;
+import com.luck.picture.lib.config.PictureMimeType;
+import com.luck.picture.lib.engine.SandboxFileEngine;
+import com.luck.picture.lib.entity.LocalMedia;
+import com.luck.picture.lib.interfaces.OnCallbackIndexListener;
+import com.luck.picture.lib.thread.PictureThreadUtils;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * @describe：延迟沙盒转换
+ * <p>
+ * 选择结果立即返回，沙盒转换在后台进行；
+ * 通过{@link #getFuture(LocalMedia)}等待某个资源转换完成，或通过{@link #openInputStream(Context, LocalMedia)}
+ * 直接读取，未转换完成时从源文件读取。
+ * <p>
+ * 转换结果按提交的LocalMedia对象区分，同一资源多次选择互不影响，需使用选择结果中的对象查询，
+ * 通过Intent返回的结果已被重新创建，查询不到转换结果，只能从源文件读取；
+ * 转换完成且结果被读取后自动释放，未读取的结果最多保留{@link #MAX_FUTURE_COUNT}个，超出后释放最早提交的。
+ */
+public final class LazySandboxTransformer {
+
+    public static final int MAX_FUTURE_COUNT = 100;
+
+    /**
+     * 提交的LocalMedia -> 转换结果，按提交顺序排列
+     */
+    private static final LinkedHashMap<MediaKey, TransformFuture> FUTURES =
+            new LinkedHashMap<MediaKey, TransformFuture>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<MediaKey, TransformFuture> eldest) {
+                    return size() > MAX_FUTURE_COUNT;
+                }
+            };
+
+    /**
+     * 按对象区分，LocalMedia的equals按路径比较
+     */
+    private static final class MediaKey {
+        private final LocalMedia media;
+
+        MediaKey(LocalMedia media) {
+            this.media = media;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof MediaKey && ((MediaKey) o).media == media;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(media);
+        }
+    }
+
+    /**
+     * 结果被成功读取后释放自身
+     */
+    private static final class TransformFuture extends FutureTask<LocalMedia> {
+        private final MediaKey key;
+
+        TransformFuture(MediaKey key, Callable<LocalMedia> callable) {
+            super(callable);
+            this.key = key;
+        }
+
+        @Override
+        public LocalMedia get() throws InterruptedException, ExecutionException {
+            LocalMedia media = super.get();
+            remove(key, this);
+            return media;
+        }
+
+        @Override
+        public LocalMedia get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            LocalMedia media = super.get(timeout, unit);
+            remove(key, this);
+            return media;
+        }
+    }
+
+    private LazySandboxTransformer() {
+
+    }
+
+    /**
+     * 提交转换，立即返回
+     *
+     * @param context
+     * @param engine          沙盒转换引擎
+     * @param isOriginalImage 是否需要处理原图
+     * @param isParallel      是否并行转换
+     * @param result          选择结果，转换完成后写入沙盒路径
+     */
+    public static void submit(Context context, final SandboxFileEngine engine, final boolean isOriginalImage,
+                              final boolean isParallel, List<LocalMedia> result) {
+        final Context appContext = context.getApplicationContext();
+        final List<LocalMedia> medias = new ArrayList<>(result);
+        final List<TransformFuture> tasks = new ArrayList<>(medias.size());
+        for (int i = 0; i < medias.size(); i++) {
+            final int index = i;
+            final LocalMedia media = medias.get(i);
+            MediaKey key = new MediaKey(media);
+            TransformFuture task = new TransformFuture(key, new Callable<LocalMedia>() {
+                @Override
+                public LocalMedia call() {
+                    transform(appContext, engine, isOriginalImage, index, media);
+                    return media;
+                }
+            });
+            tasks.add(task);
+            synchronized (FUTURES) {
+                FUTURES.put(key, task);
+            }
+        }
+        // 不绑定页面生命周期，选择页关闭后继续转换
+        PictureThreadUtils.executeByLane(PictureThreadUtils.LANE_BACKGROUND, new PictureThreadUtils.SimpleTask<Void>() {
+            @Override
+            public Void doInBackground() throws InterruptedException {
+                SandboxTransformDispatcher.dispatch(appContext, new SandboxFileEngine() {
+                    @Override
+                    public void onStartSandboxFileTransform(Context context, boolean isOriginalImage, int index,
+                                                            LocalMedia media, OnCallbackIndexListener<LocalMedia> listener) {
+                        tasks.get(index).run();
+                    }
+                }, isOriginalImage, isParallel, medias, null, null);
+                return null;
+            }
+
+            @Override
+            public void onSuccess(Void result) {
+                cancelPending(tasks);
+            }
+
+            @Override
+            public void onCancel() {
+                super.onCancel();
+                cancelPending(tasks);
+            }
+
+            @Override
+            public void onFail(Throwable t) {
+                super.onFail(t);
+                cancelPending(tasks);
+            }
+        });
+    }
+
+    /**
+     * 获取资源的转换结果，调用{@link Future#get()}成功后即被释放，再次获取返回null
+     *
+     * @param media 选择结果中的对象
+     * @return 未提交过转换或已被释放时返回null
+     */
+    public static Future<LocalMedia> getFuture(LocalMedia media) {
+        synchronized (FUTURES) {
+            return FUTURES.get(new MediaKey(media));
+        }
+    }
+
+    /**
+     * 读取资源内容，已转换完成时读取沙盒文件，否则直接从源文件读取，需在子线程中调用
+     *
+     * @param context
+     * @param media
+     * @return
+     */
+    public static InputStream openInputStream(Context context, LocalMedia media) {
+        Future<LocalMedia> future = getFuture(media);
+        try {
+            if (future != null && future.isDone() && !future.isCancelled()) {
+                future.get();
+            }
+            // 转换结果直接写入了提交的对象，释放后仍可读取沙盒文件
+            String sandboxPath = media.getSandboxPath();
+            if (!TextUtils.isEmpty(sandboxPath)) {
+                return new FileInputStream(sandboxPath);
+            }
+            String path = media.getPath();
+            if (PictureMimeType.isContent(path)) {
+                return PictureContentResolver.getContentResolverOpenFileInputStream(context, Uri.parse(path));
+            }
+            return new FileInputStream(path);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * 不再需要转换结果时释放
+     *
+     * @param media
+     */
+    public static void release(LocalMedia media) {
+        synchronized (FUTURES) {
+            FUTURES.remove(new MediaKey(media));
+        }
+    }
+
+    /**
+     * 释放全部转换结果
+     */
+    public static void releaseAll() {
+        synchronized (FUTURES) {
+            FUTURES.clear();
+        }
+    }
+
+    private static void remove(MediaKey key, TransformFuture future) {
+        synchronized (FUTURES) {
+            if (FUTURES.get(key) == future) {
+                FUTURES.remove(key);
+            }
+        }
+    }
+
+    private static void transform(Context context, SandboxFileEngine engine, final boolean isOriginalImage,
+                                  int index, final LocalMedia media) {
+        engine.onStartSandboxFileTransform(context, isOriginalImage, index, media,
+                new OnCallbackIndexListener<LocalMedia>() {
+                    @Override
+                    public void onCall(LocalMedia data, int position) {
+                        media.setSandboxPath(data.getSandboxPath());
+                        if (isOriginalImage) {
+                            media.setOriginalPath(data.getOriginalPath());
+                            media.setOriginal(!TextUtils.isEmpty(data.getOriginalPath()));
+                        }
+                    }
+                });
+    }
+
+    /**
+     * 被中断未执行的转换标记为取消并释放，避免等待方一直阻塞
+     */
+    private static void cancelPending(List<TransformFuture> tasks) {
+        for (TransformFuture task : tasks) {
+            if (task.cancel(false)) {
+                remove(task.key, task);
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.luck.picture.lib.utils;
+
+import android.content.Context;
+
+import com.luck.picture.lib.config.PictureMimeType;
+import com.luck.picture.lib.entity.MediaExtraInfo;
+import com.luck.picture.lib.thread.PictureThreadUtils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @describe：本地文件宽高、时长批量解析
+ * <p>
+ * 1.解析成功的结果按路径、大小、修改时间缓存并持久化，重复扫描时只解析新增、被修改或上次解析失败的文件；
+ * 2.未命中缓存的文件由多个线程并行解析。
+ */
+public final class MediaMetadataProber {
+
+    private static final String CACHE_FILE_NAME = "ps_media_metadata.json";
+
+    private static final int MAX_CACHE_COUNT = 5000;
+
+    private static final int PROBE_THREAD_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * key -> {width, height, duration}
+     */
+    private static final LinkedHashMap<String, long[]> CACHE = new LinkedHashMap<String, long[]>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+            return size() > MAX_CACHE_COUNT;
+        }
+    };
+
+    private static boolean isLoaded;
+
+    private MediaMetadataProber() {
+
+    }
+
+    /**
+     * 批量解析文件宽高、时长，需在子线程中调用
+     *
+     * @param context
+     * @param files     本地文件
+     * @param mimeTypes 与files一一对应的mimeType
+     * @return 与files一一对应的解析结果
+     */
+    public static MediaExtraInfo[] probe(Context context, final File[] files, final String[] mimeTypes) {
+        final Context appContext = context.getApplicationContext();
+        final MediaExtraInfo[] result = new MediaExtraInfo[files.length];
+        final String[] keys = new String[files.length];
+        final List<Integer> missIndexes = new ArrayList<>();
+        synchronized (CACHE) {
+            loadCache(appContext);
+            for (int i = 0; i < files.length; i++) {
+                keys[i] = generateKey(files[i]);
+                long[] value = CACHE.get(keys[i]);
+                if (value != null) {
+                    result[i] = toExtraInfo(value);
+                } else {
+                    missIndexes.add(i);
+                }
+            }
+        }
+        if (missIndexes.isEmpty()) {
+            return result;
+        }
+        final AtomicInteger cursor = new AtomicInteger();
+        final AtomicBoolean isCancelled = new AtomicBoolean();
+        Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                while (!isCancelled.get() && !Thread.currentThread().isInterrupted()) {
+                    int next = cursor.getAndIncrement();
+                    if (next >= missIndexes.size()) {
+                        break;
+                    }
+                    int index = missIndexes.get(next);
+                    result[index] = probe(appContext, files[index].getAbsolutePath(), mimeTypes[index]);
+                }
+            }
+        };
+        int workerCount = Math.min(PROBE_THREAD_COUNT, missIndexes.size());
+        final CountDownLatch latch = new CountDownLatch(workerCount - 1);
+        ExecutorService pool = PictureThreadUtils.getCpuPool();
+        for (int i = 1; i < workerCount; i++) {
+            final Runnable task = worker;
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+        // 当前线程也参与解析
+        worker.run();
+        boolean isInterrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                // 不再领取新的文件，但需等待正在解析的线程写完结果
+                isInterrupted = true;
+                isCancelled.set(true);
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (CACHE) {
+            for (int index : missIndexes) {
+                MediaExtraInfo info = result[index];
+                if (info == null) {
+                    // 被中断时部分文件未解析
+                    result[index] = new MediaExtraInfo();
+                    continue;
+                }
+                if (isProbeSuccess(info, mimeTypes[index])) {
+                    // 解析失败的结果不缓存，下次重新解析
+                    CACHE.put(keys[index], new long[]{info.getWidth(), info.getHeight(), info.getDuration()});
+                }
+            }
+            saveCache(appContext);
+        }
+        return result;
+    }
+
+    private static boolean isProbeSuccess(MediaExtraInfo info, String mimeType) {
+        if (PictureMimeType.isHasAudio(mimeType)) {
+            return info.getDuration() > 0;
+        }
+        return info.getWidth() > 0 && info.getHeight() > 0;
+    }
+
+    private static MediaExtraInfo probe(Context context, String path, String mimeType) {
+        if (PictureMimeType.isHasVideo(mimeType)) {
+            return MediaUtils.getVideoSize(context, path);
+        } else if (PictureMimeType.isHasAudio(mimeType)) {
+            return MediaUtils.getAudioSize(context, path);
+        } else {
+            return MediaUtils.getImageSize(context, path);
+        }
+    }
+
+    private static String generateKey(File file) {
+        return file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified();
+    }
+
+    private static MediaExtraInfo toExtraInfo(long[] value) {
+        MediaExtraInfo info = new MediaExtraInfo();
+        info.setWidth((int) value[0]);
+        info.setHeight((int) value[1]);
+        info.setDuration(value[2]);
+        return info;
+    }
+
+    private static File getCacheFile(Context context) {
+        return new File(context.getCacheDir(), CACHE_FILE_NAME);
+    }
+
+    private static void loadCache(Context context) {
+        if (isLoaded) {
+            return;
+        }
+        isLoaded = true;
+        File cacheFile = getCacheFile(context);
+        if (!cacheFile.exists()) {
+            return;
+        }
+        InputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(cacheFile);
+            byte[] bytes = new byte[(int) cacheFile.length()];
+            int offset = 0;
+            for (int len; offset < bytes.length && (len = inputStream.read(bytes, offset, bytes.length - offset)) != -1; ) {
+                offset += len;
+            }
+            JSONObject json = new JSONObject(new String(bytes, 0, offset, "UTF-8"));
+            Iterator<String> iterator = json.keys();
+            while (iterator.hasNext()) {
+                String key = iterator.next();
+                JSONArray array = json.optJSONArray(key);
+                if (array != null && array.length() == 3) {
+                    long[] value = new long[]{array.optLong(0), array.optLong(1), array.optLong(2)};
+                    if (value[0] > 0 || value[2] > 0) {
+                        // 跳过解析失败的结果
+                        CACHE.put(key, value);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            cacheFile.delete();
+        } finally {
+            PictureFileUtils.close(inputStream);
+        }
+    }
+
+    private static void saveCache(Context context) {
+        File cacheFile = getCacheFile(context);
+        File tempFile = new File(cacheFile.getAbsolutePath() + ".tmp");
+        FileOutputStream fos = null;
+        try {
+            JSONObject json = new JSONObject();
+            for (Map.Entry<String, long[]> entry : CACHE.entrySet()) {
+                long[] value = entry.getValue();
+                JSONArray array = new JSONArray();
+                array.put(value[0]).put(value[1]).put(value[2]);
+                json.put(entry.getKey(), array);
+            }
+            fos = new FileOutputStream(tempFile);
+            fos.write(json.toString().getBytes("UTF-8"));
+            fos.flush();
+            PictureFileUtils.close(fos);
+            fos = null;
+            if (!tempFile.renameTo(cacheFile)) {
+                tempFile.delete();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            tempFile.delete();
+        } finally {
+            PictureFileUtils.close(fos);
+        }
+    }
+}
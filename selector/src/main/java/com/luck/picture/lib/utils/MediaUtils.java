@@ -5,7 +5,6 @@ import android.content.ContentResolver;
 import android.content.ContentUris;
 import android.content.Context;
 import android.database.Cursor;
-import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.media.MediaMetadataRetriever;
 import android.net.Uri;
@@ -17,6 +16,8 @@ import android.text.TextUtils;
 import android.webkit.MimeTypeMap;
 
 import androidx.exifinterface.media.ExifInterface;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
 
 import com.luck.picture.lib.app.PictureAppMaster;
 import com.luck.picture.lib.basic.PictureContentResolver;
@@ -25,11 +26,8 @@ import com.luck.picture.lib.entity.MediaExtraInfo;
 import com.luck.picture.lib.interfaces.OnCallbackListener;
 import com.luck.picture.lib.thread.PictureThreadUtils;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.net.FileNameMap;
 import java.net.URLConnection;
@@ -437,6 +435,8 @@ public class MediaUtils {
 
     /**
      * 异步获取视频缩略图地址
+     * <p>
+     * 作为预加载任务执行，排队过久或切换相册时被丢弃，丢弃时回调空的MediaExtraInfo
      *
      * @param context
      * @param url
@@ -444,7 +444,7 @@ public class MediaUtils {
      * @return
      */
     public static void getAsyncVideoThumbnail(Context context, String url, OnCallbackListener<MediaExtraInfo> call) {
-        PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<MediaExtraInfo>() {
+        PictureThreadUtils.SimpleTask<MediaExtraInfo> task = new PictureThreadUtils.SimpleTask<MediaExtraInfo>() {
 
             @Override
             public MediaExtraInfo doInBackground() {
@@ -458,51 +458,50 @@ public class MediaUtils {
                     call.onCall(result);
                 }
             }
-        });
+
+            @Override
+            public void onCancel() {
+                super.onCancel();
+                if (context instanceof LifecycleOwner && ((LifecycleOwner) context).getLifecycle()
+                        .getCurrentState() == Lifecycle.State.DESTROYED) {
+                    return;
+                }
+                if (call != null) {
+                    call.onCall(new MediaExtraInfo());
+                }
+            }
+        };
+        if (context instanceof LifecycleOwner) {
+            // 页面销毁后不再回调
+            PictureThreadUtils.getTaskGroup((LifecycleOwner) context).executeByLane(PictureThreadUtils.LANE_PREFETCH, task);
+        } else {
+            PictureThreadUtils.executeByLane(PictureThreadUtils.LANE_PREFETCH, task);
+        }
     }
 
     /**
-     * 获取视频缩略图地址
+     * 获取视频缩略图地址，保持原始分辨率
+     * <p>
+     * 缩略图按视频内容缓存，重复调用不会重复生成，see {@link VideoThumbnailLoader}
      *
      * @param context
      * @param url
      * @return
      */
     public static MediaExtraInfo getVideoThumbnail(Context context, String url) {
-        Bitmap bitmap = null;
-        ByteArrayOutputStream stream = null;
-        FileOutputStream fos = null;
-        MediaExtraInfo extraInfo = new MediaExtraInfo();
-        try {
-            MediaMetadataRetriever mmr = new MediaMetadataRetriever();
-            if (PictureMimeType.isContent(url)) {
-                mmr.setDataSource(context, Uri.parse(url));
-            } else {
-                mmr.setDataSource(url);
-            }
-            bitmap = mmr.getFrameAtTime();
-            if (bitmap != null && !bitmap.isRecycled()) {
-                stream = new ByteArrayOutputStream();
-                bitmap.compress(Bitmap.CompressFormat.JPEG, 50, stream);
-                String videoThumbnailDir = PictureFileUtils.getVideoThumbnailDir(context);
-                File targetFile = new File(videoThumbnailDir, DateUtils.getCreateFileName("vid_") + "_thumb.jpg");
-                fos = new FileOutputStream(targetFile);
-                fos.write(stream.toByteArray());
-                fos.flush();
-                extraInfo.setVideoThumbnail(targetFile.getAbsolutePath());
-                extraInfo.setWidth(bitmap.getWidth());
-                extraInfo.setHeight(bitmap.getHeight());
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
-            PictureFileUtils.close(stream);
-            PictureFileUtils.close(fos);
-            if (bitmap != null && !bitmap.isRecycled()) {
-                bitmap.recycle();
-            }
-        }
-        return extraInfo;
+        return VideoThumbnailLoader.getInstance().load(context, url);
+    }
+
+    /**
+     * 获取按最长边缩放后的视频缩略图地址
+     *
+     * @param context
+     * @param url
+     * @param maxSize 缩略图最长边
+     * @return
+     */
+    public static MediaExtraInfo getVideoThumbnail(Context context, String url, int maxSize) {
+        return VideoThumbnailLoader.getInstance().load(context, url, maxSize);
     }
 
     /**
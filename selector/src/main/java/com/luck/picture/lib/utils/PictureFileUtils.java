@@ -26,6 +26,7 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.channels.FileChannel;
@@ -39,7 +40,7 @@ import java.util.Objects;
  */
 
 public class PictureFileUtils {
-    private static final int BYTE_SIZE = 1024;
+    private static final int BYTE_SIZE = 64 * 1024;
     public static final String POSTFIX_JPG = ".jpg";
     public static final String POSTFIX_MP4 = ".mp4";
     public static final String POSTFIX_AMR = ".amr";
@@ -331,22 +332,38 @@ public class PictureFileUtils {
 
     /**
      * 复制文件
+     * <p>
+     * 输入、输出均为文件流时直接在FileChannel之间传输，不经过Java堆内存；否则使用缓冲区逐段复制
+     * </p>
      *
      * @param is 文件输入流
      * @param os 文件输出流
      * @return
      */
     public static boolean writeFileFromIS(final InputStream is, final OutputStream os) {
+        if (is instanceof FileInputStream && os instanceof FileOutputStream) {
+            try {
+                long transferred = transferChannel(((FileInputStream) is).getChannel(), ((FileOutputStream) os).getChannel());
+                if (transferred >= 0) {
+                    return true;
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+                close(is);
+                close(os);
+                return false;
+            }
+        }
         OutputStream osBuffer = null;
         BufferedInputStream isBuffer = null;
         try {
-            isBuffer = new BufferedInputStream(is);
-            osBuffer = new BufferedOutputStream(os);
+            isBuffer = new BufferedInputStream(is, BYTE_SIZE);
+            osBuffer = new BufferedOutputStream(os, BYTE_SIZE);
             byte[] data = new byte[BYTE_SIZE];
             for (int len; (len = isBuffer.read(data)) != -1; ) {
-                os.write(data, 0, len);
+                osBuffer.write(data, 0, len);
             }
-            os.flush();
+            osBuffer.flush();
             return true;
         } catch (Exception e) {
             e.printStackTrace();
@@ -357,6 +374,46 @@ public class PictureFileUtils {
         }
     }
 
+    /**
+     * 在FileChannel之间传输剩余的全部数据，传输完成后关闭两端
+     *
+     * @param inputChannel
+     * @param outputChannel
+     * @return 传输的字节数，输入不是普通文件(如管道)时返回-1且不读取任何数据
+     */
+    private static long transferChannel(FileChannel inputChannel, FileChannel outputChannel) throws IOException {
+        long position;
+        long size;
+        try {
+            position = inputChannel.position();
+            size = inputChannel.size();
+        } catch (IOException e) {
+            // 管道等不可定位的输入
+            return -1;
+        }
+        if (size <= 0) {
+            return -1;
+        }
+        try {
+            long transferred = 0;
+            while (position + transferred < size) {
+                // 单次传输可能少于请求的字节数
+                long count = inputChannel.transferTo(position + transferred, size - position - transferred, outputChannel);
+                if (count <= 0) {
+                    break;
+                }
+                transferred += count;
+            }
+            if (position + transferred < size) {
+                throw new IOException("transfer incomplete: " + transferred + "/" + (size - position));
+            }
+            return transferred;
+        } finally {
+            close(inputChannel);
+            close(outputChannel);
+        }
+    }
+
 
     /**
      * getDCIMCameraPath
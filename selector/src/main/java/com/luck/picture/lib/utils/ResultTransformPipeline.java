@@ -0,0 +1,187 @@
+package com.luck.picture.lib.utils;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.text.TextUtils;
+
+import androidx.lifecycle.LifecycleOwner;
+
+import com.luck.picture.lib.config.PictureMimeType;
+import com.luck.picture.lib.engine.CompressEngine;
+import com.luck.picture.lib.engine.SandboxFileEngine;
+import com.luck.picture.lib.entity.LocalMedia;
+import com.luck.picture.lib.interfaces.OnCallbackIndexListener;
+import com.luck.picture.lib.interfaces.OnCallbackListener;
+import com.luck.picture.lib.thread.PictureThreadUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @describe：选择结果流水线处理
+ * <p>
+ * 每个资源独立经过 压缩 -> 沙盒转换，某个资源压缩完成后立即开始沙盒转换，无需等待其他资源；
+ * 非图片资源直接进入沙盒转换。沙盒转换经由{@link SandboxTransformDispatcher}，与批量转换共用并行设置、
+ * 总大小上限和进度回调，并随页面销毁取消。全部完成后按原顺序返回结果及每个资源各阶段耗时。
+ */
+public final class ResultTransformPipeline {
+
+    /**
+     * 单个资源各阶段耗时，单位毫秒
+     */
+    public static final class StageTimings {
+        public long compressMillis;
+        public long sandboxMillis;
+        public long totalMillis;
+    }
+
+    public interface OnResultTransformListener {
+        /**
+         * 全部资源处理完成，在主线程回调
+         *
+         * @param result  按原顺序排列的处理结果
+         * @param timings 与结果一一对应的各阶段耗时
+         */
+        void onComplete(ArrayList<LocalMedia> result, StageTimings[] timings);
+    }
+
+    private final Context context;
+
+    private final LifecycleOwner owner;
+
+    private final CompressEngine compressEngine;
+
+    private final ArrayList<LocalMedia> result;
+
+    private final StageTimings[] timings;
+
+    private final AtomicInteger remaining;
+
+    private final SandboxTransformDispatcher dispatcher;
+
+    private final OnResultTransformListener listener;
+
+    private long startTime;
+
+    /**
+     * @param context
+     * @param owner             沙盒转换任务随其销毁而取消
+     * @param compressEngine    压缩引擎，为空时跳过压缩
+     * @param sandboxFileEngine 沙盒转换引擎，为空时跳过沙盒转换
+     * @param isOriginalImage   是否需要处理原图
+     * @param isParallel        是否并行沙盒转换
+     * @param result            选择结果
+     * @param progressListener  沙盒转换进度
+     * @param listener          全部完成后在主线程回调
+     */
+    public ResultTransformPipeline(Context context, LifecycleOwner owner, CompressEngine compressEngine,
+                                   SandboxFileEngine sandboxFileEngine, final boolean isOriginalImage,
+                                   boolean isParallel, List<LocalMedia> result,
+                                   SandboxTransformDispatcher.OnProgressListener progressListener,
+                                   OnResultTransformListener listener) {
+        this.context = context.getApplicationContext();
+        this.owner = owner;
+        this.compressEngine = compressEngine;
+        this.result = new ArrayList<>(result);
+        this.timings = new StageTimings[result.size()];
+        this.remaining = new AtomicInteger(result.size());
+        this.listener = listener;
+        if (sandboxFileEngine != null) {
+            this.dispatcher = SandboxTransformDispatcher.create(this.context, sandboxFileEngine, isOriginalImage,
+                    isParallel, this.result, new OnCallbackIndexListener<LocalMedia>() {
+                        @Override
+                        public void onCall(LocalMedia data, int index) {
+                            LocalMedia media = ResultTransformPipeline.this.result.get(index);
+                            media.setSandboxPath(data.getSandboxPath());
+                            if (isOriginalImage) {
+                                media.setOriginalPath(data.getOriginalPath());
+                                media.setOriginal(!TextUtils.isEmpty(data.getOriginalPath()));
+                            }
+                        }
+                    }, progressListener);
+        } else {
+            this.dispatcher = null;
+        }
+    }
+
+    /**
+     * 开始处理，需在主线程中调用
+     */
+    public void start() {
+        startTime = SystemClock.elapsedRealtime();
+        if (result.isEmpty()) {
+            listener.onComplete(result, timings);
+            return;
+        }
+        for (int i = 0; i < result.size(); i++) {
+            timings[i] = new StageTimings();
+        }
+        for (int i = 0; i < result.size(); i++) {
+            LocalMedia media = result.get(i);
+            if (compressEngine != null && PictureMimeType.isHasImage(media.getMimeType())) {
+                startCompress(i, media);
+            } else {
+                startSandboxTransform(i);
+            }
+        }
+    }
+
+    private void startCompress(final int index, LocalMedia media) {
+        final long compressStartTime = SystemClock.elapsedRealtime();
+        final AtomicBoolean isCalled = new AtomicBoolean();
+        ArrayList<LocalMedia> list = new ArrayList<>(1);
+        list.add(media);
+        compressEngine.onStartCompress(context, list, new OnCallbackListener<ArrayList<LocalMedia>>() {
+            @Override
+            public void onCall(ArrayList<LocalMedia> data) {
+                if (!isCalled.compareAndSet(false, true)) {
+                    return;
+                }
+                timings[index].compressMillis = SystemClock.elapsedRealtime() - compressStartTime;
+                if (data != null && data.size() > 0) {
+                    result.set(index, data.get(0));
+                }
+                startSandboxTransform(index);
+            }
+        });
+    }
+
+    private void startSandboxTransform(final int index) {
+        if (dispatcher == null) {
+            onItemComplete(index);
+            return;
+        }
+        PictureThreadUtils.getTaskGroup(owner).executeByLane(PictureThreadUtils.LANE_BACKGROUND, new PictureThreadUtils.SimpleTask<Void>() {
+            @Override
+            public Void doInBackground() throws InterruptedException {
+                long sandboxStartTime = SystemClock.elapsedRealtime();
+                try {
+                    dispatcher.transform(index);
+                } finally {
+                    timings[index].sandboxMillis = SystemClock.elapsedRealtime() - sandboxStartTime;
+                }
+                return null;
+            }
+
+            @Override
+            public void onSuccess(Void data) {
+                onItemComplete(index);
+            }
+        });
+    }
+
+    private void onItemComplete(int index) {
+        timings[index].totalMillis = SystemClock.elapsedRealtime() - startTime;
+        if (remaining.decrementAndGet() != 0) {
+            return;
+        }
+        PictureThreadUtils.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                listener.onComplete(result, timings);
+            }
+        });
+    }
+}
@@ -0,0 +1,377 @@
+package com.luck.picture.lib.utils;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.provider.MediaStore;
+
+import com.luck.picture.lib.basic.PictureContentResolver;
+import com.luck.picture.lib.config.PictureMimeType;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @describe：沙盒文件仓库
+ * <p>
+ * 1.按来源标识(uri或路径、大小、修改时间)去重，同一资源多次拷贝只保留一份沙盒文件；
+ * 2.每次获取引用计数加一，引用只在当前进程内有效，被引用的文件不会被淘汰；
+ * 3.不会自动删除已返回给调用方的文件，只有调用{@link #trim(Context)}或{@link #evictAll(Context)}时，
+ * 才按最近使用顺序淘汰未被引用的文件。
+ */
+public final class SandboxFileStore {
+
+    /**
+     * 默认最大占用空间
+     */
+    public static final long DEFAULT_MAX_SIZE = 500 * 1024 * 1024L;
+
+    private static final String INDEX_FILE_NAME = "ps_sandbox_store.json";
+
+    private static volatile SandboxFileStore instance;
+
+    private static final class Entry {
+        String path;
+        long size;
+        int refCount;
+    }
+
+    private final Object lock = new Object();
+
+    /**
+     * key -> Entry，按访问顺序排列，最久未使用的在前
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+    private final Set<String> inFlightKeys = new HashSet<>();
+
+    private long maxSize = DEFAULT_MAX_SIZE;
+
+    private boolean isLoaded;
+
+    public static SandboxFileStore getInstance() {
+        if (instance == null) {
+            synchronized (SandboxFileStore.class) {
+                if (instance == null) {
+                    instance = new SandboxFileStore();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private SandboxFileStore() {
+
+    }
+
+    /**
+     * 设置{@link #trim(Context)}时的最大占用空间
+     *
+     * @param maxSize
+     */
+    public void setMaxSize(long maxSize) {
+        synchronized (lock) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * 获取资源对应的沙盒文件，不存在时拷贝一份，需在子线程中调用
+     *
+     * @param context
+     * @param url      content://或文件路径
+     * @param mimeType
+     * @return 沙盒路径，失败时返回null
+     */
+    public String acquire(Context context, String url, String mimeType) {
+        final Context appContext = context.getApplicationContext();
+        String key = generateKey(appContext, url);
+        if (key == null) {
+            // 无法确定来源标识，不做去重
+            return copy(appContext, url, PictureFileUtils.createFilePath(appContext, "", mimeType, ""));
+        }
+        synchronized (lock) {
+            loadIndex(appContext);
+            try {
+                // 同一资源正在拷贝时等待其完成
+                while (inFlightKeys.contains(key)) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                File file = new File(entry.path);
+                if (file.exists() && file.length() == entry.size) {
+                    entry.refCount++;
+                    saveIndex(appContext);
+                    return entry.path;
+                }
+                // 文件已被清理或修改
+                entries.remove(key);
+            }
+            inFlightKeys.add(key);
+        }
+        String sandboxPath = null;
+        try {
+            sandboxPath = copy(appContext, url, PictureFileUtils.createFilePath(appContext, key, mimeType, ""));
+        } finally {
+            synchronized (lock) {
+                inFlightKeys.remove(key);
+                if (sandboxPath != null) {
+                    Entry entry = new Entry();
+                    entry.path = sandboxPath;
+                    entry.size = new File(sandboxPath).length();
+                    entry.refCount = 1;
+                    entries.put(key, entry);
+                    saveIndex(appContext);
+                }
+                lock.notifyAll();
+            }
+        }
+        return sandboxPath;
+    }
+
+    /**
+     * 释放一次引用，引用为0后可被淘汰
+     *
+     * @param context
+     * @param sandboxPath
+     */
+    public void release(Context context, String sandboxPath) {
+        synchronized (lock) {
+            loadIndex(context.getApplicationContext());
+            for (Entry entry : entries.values()) {
+                if (entry.path.equals(sandboxPath)) {
+                    if (entry.refCount > 0) {
+                        entry.refCount--;
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 淘汰未被引用的文件，直到总大小不超过上限
+     * <p>
+     * 上次进程中返回的文件引用计数为0，调用方需确认这些文件已不再使用
+     * </p>
+     *
+     * @param context
+     */
+    public void trim(Context context) {
+        synchronized (lock) {
+            Context appContext = context.getApplicationContext();
+            loadIndex(appContext);
+            trimToSize(maxSize);
+            saveIndex(appContext);
+        }
+    }
+
+    /**
+     * 清空全部未被引用的文件
+     *
+     * @param context
+     */
+    public void evictAll(Context context) {
+        synchronized (lock) {
+            Context appContext = context.getApplicationContext();
+            loadIndex(appContext);
+            trimToSize(0);
+            saveIndex(appContext);
+        }
+    }
+
+    /**
+     * 当前占用空间
+     */
+    public long size() {
+        synchronized (lock) {
+            long size = 0;
+            for (Entry entry : entries.values()) {
+                size += entry.size;
+            }
+            return size;
+        }
+    }
+
+    private void trimToSize(long maxSize) {
+        long size = 0;
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (!new File(entry.path).exists()) {
+                // 已被PictureCacheManager等清理
+                iterator.remove();
+                continue;
+            }
+            size += entry.size;
+        }
+        iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.refCount > 0) {
+                continue;
+            }
+            if (new File(entry.path).delete()) {
+                size -= entry.size;
+                iterator.remove();
+            }
+        }
+    }
+
+    private static String copy(Context context, String url, String sandboxPath) {
+        File tempFile = new File(sandboxPath + ".tmp");
+        try {
+            InputStream inputStream;
+            if (PictureMimeType.isContent(url)) {
+                inputStream = PictureContentResolver.getContentResolverOpenFileInputStream(context, Uri.parse(url));
+            } else {
+                inputStream = new FileInputStream(url);
+            }
+            // 先写临时文件，避免其他请求拿到写了一半的文件
+            if (PictureFileUtils.writeFileFromIS(inputStream, new FileOutputStream(tempFile))
+                    && tempFile.renameTo(new File(sandboxPath))) {
+                return sandboxPath;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        tempFile.delete();
+        return null;
+    }
+
+    /**
+     * 按来源标识生成key，资源被修改后key随之变化
+     */
+    private static String generateKey(Context context, String url) {
+        long size = 0, lastModified = 0;
+        if (PictureMimeType.isContent(url)) {
+            Uri uri = Uri.parse(url);
+            Cursor cursor = null;
+            try {
+                cursor = context.getContentResolver().query(uri,
+                        new String[]{MediaStore.MediaColumns.SIZE, MediaStore.MediaColumns.DATE_MODIFIED},
+                        null, null, null);
+                if (cursor != null && cursor.moveToFirst()) {
+                    size = cursor.getLong(0);
+                    lastModified = cursor.getLong(1);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                if (cursor != null) {
+                    cursor.close();
+                }
+            }
+            if (size <= 0) {
+                ParcelFileDescriptor pfd = null;
+                try {
+                    pfd = context.getContentResolver().openFileDescriptor(uri, "r");
+                    size = pfd != null ? pfd.getStatSize() : 0;
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    PictureFileUtils.close(pfd);
+                }
+            }
+        } else {
+            File file = new File(url);
+            size = file.length();
+            lastModified = file.lastModified();
+        }
+        if (size <= 0) {
+            return null;
+        }
+        String source = url + "_" + size + "_" + lastModified;
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            return new BigInteger(1, md.digest(source.getBytes())).toString(16);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static File getIndexFile(Context context) {
+        return new File(context.getCacheDir(), INDEX_FILE_NAME);
+    }
+
+    private void loadIndex(Context context) {
+        if (isLoaded) {
+            return;
+        }
+        isLoaded = true;
+        File indexFile = getIndexFile(context);
+        if (!indexFile.exists()) {
+            return;
+        }
+        InputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(indexFile);
+            byte[] bytes = new byte[(int) indexFile.length()];
+            int offset = 0;
+            for (int len; offset < bytes.length && (len = inputStream.read(bytes, offset, bytes.length - offset)) != -1; ) {
+                offset += len;
+            }
+            JSONArray array = new JSONArray(new String(bytes, 0, offset, "UTF-8"));
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject item = array.getJSONObject(i);
+                Entry entry = new Entry();
+                entry.path = item.getString("path");
+                entry.size = item.optLong("size");
+                entries.put(item.getString("key"), entry);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            entries.clear();
+            indexFile.delete();
+        } finally {
+            PictureFileUtils.close(inputStream);
+        }
+    }
+
+    private void saveIndex(Context context) {
+        File indexFile = getIndexFile(context);
+        File tempFile = new File(indexFile.getAbsolutePath() + ".tmp");
+        FileOutputStream fos = null;
+        try {
+            JSONArray array = new JSONArray();
+            for (Map.Entry<String, Entry> item : entries.entrySet()) {
+                JSONObject json = new JSONObject();
+                json.put("key", item.getKey());
+                json.put("path", item.getValue().path);
+                json.put("size", item.getValue().size);
+                array.put(json);
+            }
+            fos = new FileOutputStream(tempFile);
+            fos.write(array.toString().getBytes("UTF-8"));
+            fos.flush();
+            PictureFileUtils.close(fos);
+            fos = null;
+            if (!tempFile.renameTo(indexFile)) {
+                tempFile.delete();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            tempFile.delete();
+        } finally {
+            PictureFileUtils.close(fos);
+        }
+    }
+}
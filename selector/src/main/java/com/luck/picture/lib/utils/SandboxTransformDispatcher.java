@@ -0,0 +1,207 @@
+package com.luck.picture.lib.utils;
+
+import android.content.Context;
+
+import com.luck.picture.lib.engine.SandboxFileEngine;
+import com.luck.picture.lib.entity.LocalMedia;
+import com.luck.picture.lib.interfaces.OnCallbackIndexListener;
+import com.luck.picture.lib.thread.PictureThreadUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @describe：并行执行{@link SandboxFileEngine}
+ * <p>
+ * 1.开启并行时最多{@link #MAX_PARALLEL_COUNT}个资源同时转换，否则逐个转换，结果按原顺序写回；
+ * 2.同时转换的资源总大小不超过{@link #MAX_IN_FLIGHT_BYTES}，避免过多并发写入拖慢存储，单个超大资源独占执行；
+ * 3.每完成一个资源回调一次进度。
+ */
+public final class SandboxTransformDispatcher {
+
+    public static final int MAX_PARALLEL_COUNT =
+            Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() / 2));
+
+    public static final long MAX_IN_FLIGHT_BYTES = 200 * 1024 * 1024L;
+
+    public interface OnProgressListener {
+        /**
+         * 转换进度，在子线程中回调
+         *
+         * @param completed 已完成数量
+         * @param total     总数量
+         */
+        void onProgress(int completed, int total);
+    }
+
+    private final Object budgetLock = new Object();
+
+    private final Object serialLock = new Object();
+
+    private final Context context;
+
+    private final SandboxFileEngine engine;
+
+    private final boolean isOriginalImage;
+
+    private final boolean isParallel;
+
+    private final List<LocalMedia> result;
+
+    private final OnCallbackIndexListener<LocalMedia> callback;
+
+    private final OnProgressListener listener;
+
+    private final AtomicInteger completed = new AtomicInteger();
+
+    private long inFlightBytes;
+
+    private SandboxTransformDispatcher(Context context, SandboxFileEngine engine, boolean isOriginalImage,
+                                       boolean isParallel, List<LocalMedia> result,
+                                       OnCallbackIndexListener<LocalMedia> callback, OnProgressListener listener) {
+        this.context = context;
+        this.engine = engine;
+        this.isOriginalImage = isOriginalImage;
+        this.isParallel = isParallel;
+        this.result = result;
+        this.callback = callback;
+        this.listener = listener;
+    }
+
+    /**
+     * 创建转换器，由调用方决定每个资源的转换时机，见{@link #transform(int)}
+     *
+     * @param context
+     * @param engine          沙盒转换引擎，isParallel为true时需支持并发调用
+     * @param isOriginalImage 是否需要处理原图
+     * @param isParallel      是否并行转换，为false时同一时间只转换一个资源
+     * @param result          选择结果
+     * @param callback        每个资源的转换结果
+     * @param listener        进度
+     * @return
+     */
+    public static SandboxTransformDispatcher create(Context context, SandboxFileEngine engine, boolean isOriginalImage,
+                                                    boolean isParallel, List<LocalMedia> result,
+                                                    OnCallbackIndexListener<LocalMedia> callback,
+                                                    OnProgressListener listener) {
+        return new SandboxTransformDispatcher(context, engine, isOriginalImage, isParallel, result, callback, listener);
+    }
+
+    /**
+     * 所有资源转换完成后返回，需在子线程中调用
+     *
+     * @param context
+     * @param engine          沙盒转换引擎，isParallel为true时需支持并发调用
+     * @param isOriginalImage 是否需要处理原图
+     * @param isParallel      是否并行转换
+     * @param result          选择结果，转换结果按index写回
+     * @param callback        每个资源的转换结果
+     * @param listener        进度
+     */
+    public static void dispatch(Context context, SandboxFileEngine engine, boolean isOriginalImage,
+                                boolean isParallel, List<LocalMedia> result, OnCallbackIndexListener<LocalMedia> callback,
+                                OnProgressListener listener) throws InterruptedException {
+        final int total = result.size();
+        if (total == 0) {
+            return;
+        }
+        final SandboxTransformDispatcher dispatcher =
+                create(context, engine, isOriginalImage, isParallel, result, callback, listener);
+        final AtomicInteger cursor = new AtomicInteger();
+        final AtomicBoolean isCancelled = new AtomicBoolean();
+        final Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                while (!isCancelled.get() && !Thread.currentThread().isInterrupted()) {
+                    int index = cursor.getAndIncrement();
+                    if (index >= total) {
+                        break;
+                    }
+                    try {
+                        dispatcher.transform(index);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        };
+        int workerCount = isParallel ? Math.min(MAX_PARALLEL_COUNT, total) : 1;
+        final CountDownLatch latch = new CountDownLatch(workerCount - 1);
+        ExecutorService pool = PictureThreadUtils.getFixedPool(MAX_PARALLEL_COUNT);
+        for (int i = 1; i < workerCount; i++) {
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        worker.run();
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+        try {
+            // 当前线程也参与转换
+            worker.run();
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            latch.await();
+        } catch (InterruptedException e) {
+            // 任务被取消，其他线程不再领取新的资源
+            isCancelled.set(true);
+            throw e;
+        }
+    }
+
+    /**
+     * 在当前线程转换第index个资源，受并行设置和总大小上限约束，需在子线程中调用
+     *
+     * @param index
+     */
+    public void transform(int index) throws InterruptedException {
+        if (isParallel) {
+            transformInternal(index);
+        } else {
+            synchronized (serialLock) {
+                transformInternal(index);
+            }
+        }
+    }
+
+    private void transformInternal(int index) throws InterruptedException {
+        LocalMedia media = result.get(index);
+        long bytes = Math.min(Math.max(media.getSize(), 0), MAX_IN_FLIGHT_BYTES);
+        acquire(bytes);
+        try {
+            engine.onStartSandboxFileTransform(context, isOriginalImage, index, media, callback);
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            release(bytes);
+        }
+        if (listener != null) {
+            listener.onProgress(completed.incrementAndGet(), result.size());
+        }
+    }
+
+    private void acquire(long bytes) throws InterruptedException {
+        synchronized (budgetLock) {
+            while (inFlightBytes > 0 && inFlightBytes + bytes > MAX_IN_FLIGHT_BYTES) {
+                budgetLock.wait();
+            }
+            inFlightBytes += bytes;
+        }
+    }
+
+    private void release(long bytes) {
+        synchronized (budgetLock) {
+            inFlightBytes -= bytes;
+            budgetLock.notifyAll();
+        }
+    }
+}
@@ -19,6 +19,9 @@ public class SandboxTransformUtils {
 
     /**
      * 把外部目录下的图片拷贝至沙盒内
+     * <p>
+     * 同一资源只拷贝一次，由{@link SandboxFileStore}管理，不再使用时可调用{@link #releaseSandboxPath(Context, String)}
+     * </p>
      *
      * @param ctx
      * @param url
@@ -26,7 +29,17 @@ public class SandboxTransformUtils {
      * @return
      */
     public static String copyPathToSandbox(Context ctx, String url, String mineType) {
-        return copyPathToSandbox(ctx, url, mineType, "");
+        return SandboxFileStore.getInstance().acquire(ctx, url, mineType);
+    }
+
+    /**
+     * 释放{@link #copyPathToSandbox(Context, String, String)}返回的沙盒文件，释放后可被淘汰
+     *
+     * @param ctx
+     * @param sandboxPath
+     */
+    public static void releaseSandboxPath(Context ctx, String sandboxPath) {
+        SandboxFileStore.getInstance().release(ctx, sandboxPath);
     }
 
     /**
@@ -43,7 +56,7 @@ public class SandboxTransformUtils {
             InputStream inputStream;
             String sandboxPath = PictureFileUtils.createFilePath(ctx, "", mineType, customFileName);
             if (PictureMimeType.isContent(url)) {
-                inputStream = PictureContentResolver.getContentResolverOpenInputStream(ctx, Uri.parse(url));
+                inputStream = PictureContentResolver.getContentResolverOpenFileInputStream(ctx, Uri.parse(url));
             } else {
                 inputStream = new FileInputStream(url);
             }
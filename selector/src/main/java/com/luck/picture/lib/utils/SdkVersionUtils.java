@@ -49,6 +49,15 @@ public class SdkVersionUtils {
         return Build.VERSION.SDK_INT == Build.VERSION_CODES.N;
     }
 
+    /**
+     * 判断是否是Android O_MR1及以上版本
+     *
+     * @return
+     */
+    public static boolean isO_MR1() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1;
+    }
+
     /**
      * 判断是否是Android Q版本
      *
@@ -0,0 +1,299 @@
+package com.luck.picture.lib.utils;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.media.MediaMetadataRetriever;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.provider.MediaStore;
+
+import com.luck.picture.lib.config.PictureMimeType;
+import com.luck.picture.lib.entity.MediaExtraInfo;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+
+/**
+ * @describe：视频缩略图加载
+ * <p>
+ * 1.缩略图按视频内容(路径、大小、修改时间)及尺寸缓存在磁盘，同一视频只生成一次；
+ * 2.同一视频的并发请求只执行一次，其余请求等待其结果；
+ * 3.MediaMetadataRetriever复用且数量有上限，直接取缩放后的帧。
+ */
+public final class VideoThumbnailLoader {
+
+    /**
+     * 保持视频原始分辨率，不缩放
+     */
+    public static final int ORIGINAL_SIZE = 0;
+
+    private static final int QUALITY = 80;
+
+    private static final int MAX_RETRIEVER_COUNT =
+            Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() / 2));
+
+    private static volatile VideoThumbnailLoader instance;
+
+    private final Semaphore retrieverPermits = new Semaphore(MAX_RETRIEVER_COUNT);
+
+    private final ArrayDeque<MediaMetadataRetriever> idleRetrievers = new ArrayDeque<>();
+
+    private final ConcurrentHashMap<String, FutureTask<MediaExtraInfo>> inFlightTasks = new ConcurrentHashMap<>();
+
+    public static VideoThumbnailLoader getInstance() {
+        if (instance == null) {
+            synchronized (VideoThumbnailLoader.class) {
+                if (instance == null) {
+                    instance = new VideoThumbnailLoader();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private VideoThumbnailLoader() {
+
+    }
+
+    /**
+     * 获取原始分辨率的视频缩略图，需在子线程中调用
+     *
+     * @param context
+     * @param url
+     * @return
+     */
+    public MediaExtraInfo load(Context context, String url) {
+        return load(context, url, ORIGINAL_SIZE);
+    }
+
+    /**
+     * 获取视频缩略图，需在子线程中调用
+     *
+     * @param context
+     * @param url
+     * @param maxSize 缩略图最长边，{@link #ORIGINAL_SIZE}时不缩放
+     * @return
+     */
+    public MediaExtraInfo load(Context context, final String url, final int maxSize) {
+        final Context appContext = context.getApplicationContext();
+        String key = generateKey(appContext, url, maxSize);
+        final File cacheFile = new File(PictureFileUtils.getVideoThumbnailDir(appContext), key + "_thumb.jpg");
+        if (cacheFile.exists()) {
+            return buildCacheExtraInfo(cacheFile);
+        }
+        FutureTask<MediaExtraInfo> task = new FutureTask<>(new Callable<MediaExtraInfo>() {
+            @Override
+            public MediaExtraInfo call() {
+                return createThumbnail(appContext, url, maxSize, cacheFile);
+            }
+        });
+        FutureTask<MediaExtraInfo> inFlightTask = inFlightTasks.putIfAbsent(key, task);
+        if (inFlightTask == null) {
+            inFlightTask = task;
+            try {
+                task.run();
+            } finally {
+                inFlightTasks.remove(key, task);
+            }
+        }
+        try {
+            return inFlightTask.get();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new MediaExtraInfo();
+        }
+    }
+
+    /**
+     * 释放空闲的MediaMetadataRetriever
+     */
+    public static void releaseRetrievers() {
+        VideoThumbnailLoader loader = instance;
+        if (loader == null) {
+            return;
+        }
+        synchronized (loader.idleRetrievers) {
+            while (!loader.idleRetrievers.isEmpty()) {
+                release(loader.idleRetrievers.poll());
+            }
+        }
+    }
+
+    private MediaExtraInfo createThumbnail(Context context, String url, int maxSize, File cacheFile) {
+        if (cacheFile.exists()) {
+            // 等待期间已由其他请求生成
+            return buildCacheExtraInfo(cacheFile);
+        }
+        MediaExtraInfo extraInfo = new MediaExtraInfo();
+        MediaMetadataRetriever retriever = null;
+        Bitmap bitmap = null;
+        boolean isRetrieverReusable = false;
+        try {
+            retrieverPermits.acquire();
+            retriever = obtainRetriever();
+            if (PictureMimeType.isContent(url)) {
+                retriever.setDataSource(context, Uri.parse(url));
+            } else {
+                retriever.setDataSource(url);
+            }
+            bitmap = getScaledFrame(retriever, maxSize);
+            isRetrieverReusable = true;
+            if (bitmap != null) {
+                // 先写临时文件，避免其他请求读到写了一半的缓存
+                File tempFile = new File(cacheFile.getAbsolutePath() + ".tmp");
+                FileOutputStream fos = new FileOutputStream(tempFile);
+                try {
+                    bitmap.compress(Bitmap.CompressFormat.JPEG, QUALITY, fos);
+                    fos.flush();
+                } finally {
+                    PictureFileUtils.close(fos);
+                }
+                if (tempFile.renameTo(cacheFile)) {
+                    extraInfo.setVideoThumbnail(cacheFile.getAbsolutePath());
+                    extraInfo.setWidth(bitmap.getWidth());
+                    extraInfo.setHeight(bitmap.getHeight());
+                } else {
+                    tempFile.delete();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            if (retriever != null) {
+                recycleRetriever(retriever, isRetrieverReusable);
+                retrieverPermits.release();
+            }
+            if (bitmap != null && !bitmap.isRecycled()) {
+                bitmap.recycle();
+            }
+        }
+        return extraInfo;
+    }
+
+    private static Bitmap getScaledFrame(MediaMetadataRetriever retriever, int maxSize) {
+        if (maxSize <= ORIGINAL_SIZE) {
+            return retriever.getFrameAtTime();
+        }
+        int width = ValueOf.toInt(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_VIDEO_WIDTH));
+        int height = ValueOf.toInt(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_VIDEO_HEIGHT));
+        float scale = width > 0 && height > 0 ? Math.min(1F, maxSize / (float) Math.max(width, height)) : 1F;
+        if (SdkVersionUtils.isO_MR1() && width > 0 && height > 0) {
+            return retriever.getScaledFrameAtTime(-1, MediaMetadataRetriever.OPTION_CLOSEST_SYNC,
+                    Math.round(width * scale), Math.round(height * scale));
+        }
+        Bitmap frame = retriever.getFrameAtTime();
+        if (frame == null) {
+            return null;
+        }
+        scale = Math.min(1F, maxSize / (float) Math.max(frame.getWidth(), frame.getHeight()));
+        if (scale >= 1F) {
+            return frame;
+        }
+        Bitmap scaled = Bitmap.createScaledBitmap(frame, Math.round(frame.getWidth() * scale),
+                Math.round(frame.getHeight() * scale), true);
+        if (scaled != frame) {
+            frame.recycle();
+        }
+        return scaled;
+    }
+
+    private MediaMetadataRetriever obtainRetriever() {
+        synchronized (idleRetrievers) {
+            MediaMetadataRetriever retriever = idleRetrievers.poll();
+            if (retriever != null) {
+                return retriever;
+            }
+        }
+        return new MediaMetadataRetriever();
+    }
+
+    private void recycleRetriever(MediaMetadataRetriever retriever, boolean isReusable) {
+        if (isReusable) {
+            synchronized (idleRetrievers) {
+                if (idleRetrievers.size() < MAX_RETRIEVER_COUNT) {
+                    idleRetrievers.offer(retriever);
+                    return;
+                }
+            }
+        }
+        release(retriever);
+    }
+
+    private static void release(MediaMetadataRetriever retriever) {
+        try {
+            retriever.release();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static MediaExtraInfo buildCacheExtraInfo(File cacheFile) {
+        MediaExtraInfo extraInfo = new MediaExtraInfo();
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(cacheFile.getAbsolutePath(), options);
+        extraInfo.setVideoThumbnail(cacheFile.getAbsolutePath());
+        extraInfo.setWidth(options.outWidth);
+        extraInfo.setHeight(options.outHeight);
+        return extraInfo;
+    }
+
+    /**
+     * 按视频内容生成缓存key，视频被修改后key随之变化
+     */
+    private static String generateKey(Context context, String url, int maxSize) {
+        long size = 0, lastModified = 0;
+        if (PictureMimeType.isContent(url)) {
+            Uri uri = Uri.parse(url);
+            Cursor cursor = null;
+            try {
+                cursor = context.getContentResolver().query(uri,
+                        new String[]{MediaStore.MediaColumns.SIZE, MediaStore.MediaColumns.DATE_MODIFIED},
+                        null, null, null);
+                if (cursor != null && cursor.moveToFirst()) {
+                    size = cursor.getLong(0);
+                    lastModified = cursor.getLong(1);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                if (cursor != null) {
+                    cursor.close();
+                }
+            }
+            if (size <= 0) {
+                ParcelFileDescriptor pfd = null;
+                try {
+                    pfd = context.getContentResolver().openFileDescriptor(uri, "r");
+                    size = pfd != null ? pfd.getStatSize() : 0;
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    PictureFileUtils.close(pfd);
+                }
+            }
+        } else {
+            File file = new File(url);
+            size = file.length();
+            lastModified = file.lastModified();
+        }
+        String source = url + "_" + size + "_" + lastModified + "_" + maxSize;
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            return new BigInteger(1, md.digest(source.getBytes())).toString(16);
+        } catch (Exception e) {
+            return String.valueOf(source.hashCode() & 0xffffffffL);
+        }
+    }
+}
@@ -348,6 +348,7 @@ public class UCrop {
         public static final String EXTRA_ALLOWED_GESTURES = EXTRA_PREFIX + ".AllowedGestures";
 
         public static final String EXTRA_MAX_BITMAP_SIZE = EXTRA_PREFIX + ".MaxBitmapSize";
+        public static final String EXTRA_PREVIEW_BITMAP_CONFIG = EXTRA_PREFIX + ".PreviewBitmapConfig";
         public static final String EXTRA_MAX_SCALE_MULTIPLIER = EXTRA_PREFIX + ".MaxScaleMultiplier";
         public static final String EXTRA_IMAGE_TO_CROP_BOUNDS_ANIM_DURATION = EXTRA_PREFIX + ".ImageToCropBoundsAnimDuration";
 
@@ -505,6 +506,18 @@ public class UCrop {
             mOptionBundle.putInt(EXTRA_MAX_BITMAP_SIZE, maxBitmapSize);
         }
 
+        /**
+         * Set config of the bitmap that is decoded for the crop view, e.g. {@link Bitmap.Config#RGB_565}
+         * to halve preview memory or {@link Bitmap.Config#HARDWARE} (Android O+) to keep it on the GPU,
+         * which keeps gestures on large images smooth. Only the preview uses this config, for anything other than
+         * ARGB_8888 the cropped image is decoded again from the input, so the result keeps full quality and transparency.
+         *
+         * @param config - bitmap config, ARGB_8888 by default
+         */
+        public void setPreviewBitmapConfig(@NonNull Bitmap.Config config) {
+            mOptionBundle.putString(EXTRA_PREVIEW_BITMAP_CONFIG, config.name());
+        }
+
         /**
          * @param color - desired color of dimmed area around the crop bounds
          */
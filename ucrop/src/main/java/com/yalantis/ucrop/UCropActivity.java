@@ -47,6 +47,9 @@ import androidx.transition.TransitionManager;
 import com.yalantis.ucrop.callback.BitmapCropCallback;
 import com.yalantis.ucrop.model.AspectRatio;
 import com.yalantis.ucrop.statusbar.ImmersiveManager;
+import com.yalantis.ucrop.util.BitmapLoadUtils;
+import com.yalantis.ucrop.util.BitmapPool;
+import com.yalantis.ucrop.util.DeviceCapabilityCache;
 import com.yalantis.ucrop.util.FileUtils;
 import com.yalantis.ucrop.util.SelectedStateListDrawable;
 import com.yalantis.ucrop.view.CropImageView;
@@ -133,6 +136,7 @@ public class UCropActivity extends AppCompatActivity {
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        DeviceCapabilityCache.prefetch(this);
         immersive();
         setContentView(R.layout.ucrop_activity_photobox);
         Intent intent = getIntent();
@@ -256,6 +260,7 @@ public class UCropActivity extends AppCompatActivity {
 
         // Crop image view options
         mGestureCropImageView.setMaxBitmapSize(intent.getIntExtra(UCrop.Options.EXTRA_MAX_BITMAP_SIZE, CropImageView.DEFAULT_MAX_BITMAP_SIZE));
+        mGestureCropImageView.setPreviewBitmapConfig(BitmapLoadUtils.getBitmapConfig(intent.getStringExtra(UCrop.Options.EXTRA_PREVIEW_BITMAP_CONFIG)));
         mGestureCropImageView.setMaxScaleMultiplier(intent.getFloatExtra(UCrop.Options.EXTRA_MAX_SCALE_MULTIPLIER, CropImageView.DEFAULT_MAX_SCALE_MULTIPLIER));
         mGestureCropImageView.setImageToWrapCropBoundsAnimDuration(intent.getIntExtra(UCrop.Options.EXTRA_IMAGE_TO_CROP_BOUNDS_ANIM_DURATION, CropImageView.DEFAULT_IMAGE_TO_CROP_BOUNDS_ANIM_DURATION));
 
@@ -735,6 +740,7 @@ public class UCropActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         UCropDevelopConfig.destroy();
+        BitmapPool.getInstance().clear();
         super.onDestroy();
     }
 }
@@ -34,6 +34,8 @@ import androidx.transition.TransitionManager;
 
 import com.yalantis.ucrop.callback.BitmapCropCallback;
 import com.yalantis.ucrop.model.AspectRatio;
+import com.yalantis.ucrop.util.BitmapLoadUtils;
+import com.yalantis.ucrop.util.BitmapPool;
 import com.yalantis.ucrop.util.FileUtils;
 import com.yalantis.ucrop.util.SelectedStateListDrawable;
 import com.yalantis.ucrop.view.CropImageView;
@@ -137,6 +139,15 @@ public class UCropFragment extends Fragment {
         return rootView;
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (mGestureCropImageView != null) {
+            // deferred by the pool while a running BitmapCropTask still holds it
+            BitmapPool.getInstance().put(mGestureCropImageView.getViewBitmap());
+        }
+    }
+
     /**
      * Fragment重新可见
      */
@@ -238,6 +249,7 @@ public class UCropFragment extends Fragment {
 
         // Crop image view options
         mGestureCropImageView.setMaxBitmapSize(bundle.getInt(UCrop.Options.EXTRA_MAX_BITMAP_SIZE, CropImageView.DEFAULT_MAX_BITMAP_SIZE));
+        mGestureCropImageView.setPreviewBitmapConfig(BitmapLoadUtils.getBitmapConfig(bundle.getString(UCrop.Options.EXTRA_PREVIEW_BITMAP_CONFIG)));
         mGestureCropImageView.setMaxScaleMultiplier(bundle.getFloat(UCrop.Options.EXTRA_MAX_SCALE_MULTIPLIER, CropImageView.DEFAULT_MAX_SCALE_MULTIPLIER));
         mGestureCropImageView.setImageToWrapCropBoundsAnimDuration(bundle.getInt(UCrop.Options.EXTRA_IMAGE_TO_CROP_BOUNDS_ANIM_DURATION, CropImageView.DEFAULT_IMAGE_TO_CROP_BOUNDS_ANIM_DURATION));
 
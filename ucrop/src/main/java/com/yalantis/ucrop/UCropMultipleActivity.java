@@ -41,6 +41,8 @@ import com.yalantis.ucrop.decoration.GridSpacingItemDecoration;
 import com.yalantis.ucrop.model.AspectRatio;
 import com.yalantis.ucrop.model.CustomIntentKey;
 import com.yalantis.ucrop.statusbar.ImmersiveManager;
+import com.yalantis.ucrop.util.BitmapPool;
+import com.yalantis.ucrop.util.DeviceCapabilityCache;
 import com.yalantis.ucrop.util.DensityUtil;
 import com.yalantis.ucrop.util.FileUtils;
 
@@ -90,6 +92,7 @@ public class UCropMultipleActivity extends AppCompatActivity implements UCropFra
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        DeviceCapabilityCache.prefetch(this);
         immersive();
         setContentView(R.layout.ucrop_activity_multiple);
         initCropFragments();
@@ -460,6 +463,7 @@ public class UCropMultipleActivity extends AppCompatActivity implements UCropFra
     @Override
     protected void onDestroy() {
         UCropDevelopConfig.destroy();
+        BitmapPool.getInstance().clear();
         super.onDestroy();
     }
 
@@ -2,6 +2,7 @@ package com.yalantis.ucrop.task;
 
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
 import android.graphics.Matrix;
 import android.graphics.RectF;
 import android.net.Uri;
@@ -18,11 +19,14 @@ import com.yalantis.ucrop.model.CropParameters;
 import com.yalantis.ucrop.model.ExifInfo;
 import com.yalantis.ucrop.model.ImageState;
 import com.yalantis.ucrop.util.BitmapLoadUtils;
+import com.yalantis.ucrop.util.BitmapPool;
 import com.yalantis.ucrop.util.FileUtils;
 import com.yalantis.ucrop.util.ImageHeaderParser;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -32,6 +36,8 @@ import java.lang.ref.WeakReference;
 /**
  * Crops part of image that fills the crop bounds.
  * <p/>
+ * If the view shows a hardware bitmap, the image is decoded again from the input instead.
+ * <p/>
  * First image is downscaled if max size was set and if resulting image is larger that max size.
  * Then image is rotated accordingly.
  * Finally new Bitmap object is created and saved to file.
@@ -46,6 +52,7 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
     private final WeakReference<Context> mContext;
 
     private Bitmap mViewBitmap;
+    private final Bitmap mHeldViewBitmap;
 
     private final RectF mCropRect;
     private final RectF mCurrentImageRect;
@@ -69,6 +76,9 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
         mContext = new WeakReference<>(context);
 
         mViewBitmap = viewBitmap;
+        // the view may replace the bitmap while cropping, keep it out of the pool until the task finishes
+        mHeldViewBitmap = viewBitmap;
+        BitmapPool.getInstance().hold(viewBitmap);
         mCropRect = imageState.getCropRect();
         mCurrentImageRect = imageState.getCurrentImageRect();
 
@@ -120,6 +130,21 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
             return false;
         }
 
+        // Hardware bitmaps live on the GPU and RGB_565 ones lost the alpha and color depth of the source,
+        // decode the source again at full config instead of cropping the preview bitmap
+        if (mViewBitmap.getConfig() != Bitmap.Config.ARGB_8888) {
+            Bitmap sourceBitmap = decodeSourceBitmap(context, mViewBitmap.getWidth(), mViewBitmap.getHeight());
+            if (sourceBitmap == null) {
+                sourceBitmap = mViewBitmap.copy(Bitmap.Config.ARGB_8888, false);
+            }
+            if (sourceBitmap == null) {
+                throw new IllegalStateException("ViewBitmap could not be copied");
+            }
+            // crop math is done in bitmap pixels, adjust the scale to the decoded bitmap
+            mCurrentScale /= (float) sourceBitmap.getWidth() / mViewBitmap.getWidth();
+            mViewBitmap = sourceBitmap;
+        }
+
         // Downsize if needed
         if (mMaxResultImageSizeX > 0 && mMaxResultImageSizeY > 0) {
             float cropWidth = mCropRect.width() / mCurrentScale;
@@ -165,8 +190,12 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
         Log.i(TAG, "Should crop: " + shouldCrop);
         if (shouldCrop) {
             checkValidityCropBounds();
-            saveImage(Bitmap.createBitmap(mViewBitmap, cropOffsetX, cropOffsetY, mCroppedImageWidth, mCroppedImageHeight));
+            byte[] exifSegment = null;
             if (mCompressFormat.equals(Bitmap.CompressFormat.JPEG)) {
+                exifSegment = buildExifSegment(context);
+            }
+            saveImage(Bitmap.createBitmap(mViewBitmap, cropOffsetX, cropOffsetY, mCroppedImageWidth, mCroppedImageHeight), exifSegment);
+            if (mCompressFormat.equals(Bitmap.CompressFormat.JPEG) && exifSegment == null) {
                 copyExifForOutputFile(context);
             }
             return true;
@@ -195,6 +224,113 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
         }
     }
 
+    /**
+     * Decode the input image in the orientation of the view bitmap,
+     * at least as large as the view bitmap as long as it fits into memory.
+     *
+     * @return software bitmap or null if the input couldn't be decoded
+     */
+    @Nullable
+    private Bitmap decodeSourceBitmap(Context context, int viewWidth, int viewHeight) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        InputStream inputStream = null;
+        try {
+            inputStream = openInputStream(context);
+            BitmapFactory.decodeStream(inputStream, null, options);
+        } catch (IOException e) {
+            Log.d(TAG, e.getMessage(), e);
+            return null;
+        } finally {
+            BitmapLoadUtils.close(inputStream);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        int sourceLongSide = Math.max(options.outWidth, options.outHeight);
+        int viewLongSide = Math.max(viewWidth, viewHeight);
+        int inSampleSize = 1;
+        while (sourceLongSide / (inSampleSize * 2) >= viewLongSide) {
+            inSampleSize *= 2;
+        }
+        long memoryBudget = BitmapLoadUtils.getBitmapMemoryBudget();
+        while ((long) (options.outWidth / inSampleSize) * (options.outHeight / inSampleSize)
+                * BitmapPool.getBytesPerPixel(Bitmap.Config.ARGB_8888) > memoryBudget) {
+            inSampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = inSampleSize;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+
+        Bitmap bitmap;
+        try {
+            inputStream = openInputStream(context);
+            bitmap = BitmapFactory.decodeStream(inputStream, null, options);
+        } catch (IOException e) {
+            Log.d(TAG, e.getMessage(), e);
+            return null;
+        } catch (OutOfMemoryError error) {
+            Log.e(TAG, "decodeSourceBitmap: ", error);
+            return null;
+        } finally {
+            BitmapLoadUtils.close(inputStream);
+        }
+        if (bitmap == null) {
+            return null;
+        }
+
+        if (mExifInfo != null) {
+            Matrix matrix = new Matrix();
+            if (mExifInfo.getExifDegrees() != 0) {
+                matrix.preRotate(mExifInfo.getExifDegrees());
+            }
+            if (mExifInfo.getExifTranslation() != 1) {
+                matrix.postScale(mExifInfo.getExifTranslation(), 1);
+            }
+            if (!matrix.isIdentity()) {
+                Bitmap transformedBitmap = BitmapLoadUtils.transformBitmap(bitmap, matrix);
+                if (transformedBitmap != bitmap) {
+                    bitmap.recycle();
+                }
+                bitmap = transformedBitmap;
+            }
+        }
+        return bitmap;
+    }
+
+    @Nullable
+    private InputStream openInputStream(Context context) throws IOException {
+        if (BitmapLoadUtils.hasContentScheme(mImageInputUri)) {
+            return context.getContentResolver().openInputStream(mImageInputUri);
+        } else {
+            return new FileInputStream(mImageInputPath);
+        }
+    }
+
+    /**
+     * Build the exif segment of the output file from the original jpeg,
+     * so it can be spliced in while the output is written.
+     *
+     * @return APP1 segment or null if the original exif has to be copied with {@link ExifInterface}
+     */
+    @Nullable
+    private byte[] buildExifSegment(Context context) {
+        InputStream inputStream = null;
+        try {
+            inputStream = openInputStream(context);
+            if (inputStream == null) {
+                return null;
+            }
+            return ImageHeaderParser.buildExifSegment(new BufferedInputStream(inputStream), mCroppedImageWidth, mCroppedImageHeight);
+        } catch (IOException e) {
+            Log.d(TAG, e.getMessage(), e);
+            return null;
+        } finally {
+            BitmapLoadUtils.close(inputStream);
+        }
+    }
+
     private void copyExifForOutputFile(Context context) throws IOException {
         boolean hasImageInputUriContentSchema = BitmapLoadUtils.hasContentScheme(mImageInputUri);
         boolean hasImageOutputUriContentSchema = BitmapLoadUtils.hasContentScheme(mImageOutputUri);
@@ -226,7 +362,10 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
         }
     }
 
-    private void saveImage(@NonNull Bitmap croppedBitmap) {
+    /**
+     * @param exifSegment APP1 segment inserted right after the SOI marker of the encoded image, may be null
+     */
+    private void saveImage(@NonNull Bitmap croppedBitmap, @Nullable byte[] exifSegment) {
         Context context = mContext.get();
         if (context == null) {
             return;
@@ -238,7 +377,15 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
             outputStream = context.getContentResolver().openOutputStream(mImageOutputUri);
             outStream = new ByteArrayOutputStream();
             croppedBitmap.compress(mCompressFormat, mCompressQuality, outStream);
-            outputStream.write(outStream.toByteArray());
+            byte[] data = outStream.toByteArray();
+            if (exifSegment != null && data.length > 2
+                    && (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8) {
+                outputStream.write(data, 0, 2);
+                outputStream.write(exifSegment);
+                outputStream.write(data, 2, data.length - 2);
+            } else {
+                outputStream.write(data);
+            }
             croppedBitmap.recycle();
         } catch (IOException exc) {
             Log.e(TAG, exc.getLocalizedMessage());
@@ -267,8 +414,14 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
                 || mCurrentAngle != 0;
     }
 
+    @Override
+    protected void onCancelled(@Nullable Throwable t) {
+        BitmapPool.getInstance().release(mHeldViewBitmap);
+    }
+
     @Override
     protected void onPostExecute(@Nullable Throwable t) {
+        BitmapPool.getInstance().release(mHeldViewBitmap);
         if (mCropCallback != null) {
             if (t == null) {
                 Uri uri;
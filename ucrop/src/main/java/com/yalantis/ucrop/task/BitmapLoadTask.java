@@ -6,6 +6,7 @@ import android.graphics.BitmapFactory;
 import android.graphics.Matrix;
 import android.net.Uri;
 import android.os.AsyncTask;
+import android.os.Build;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -15,6 +16,7 @@ import com.yalantis.ucrop.OkHttpClientStore;
 import com.yalantis.ucrop.callback.BitmapLoadCallback;
 import com.yalantis.ucrop.model.ExifInfo;
 import com.yalantis.ucrop.util.BitmapLoadUtils;
+import com.yalantis.ucrop.util.BitmapPool;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -30,7 +32,8 @@ import okio.Sink;
 
 /**
  * Creates and returns a Bitmap for a given Uri(String url).
- * inSampleSize is calculated based on requiredWidth property. However can be adjusted if OOM occurs.
+ * inSampleSize is calculated based on requiredWidth property and available memory. However can be adjusted if OOM occurs.
+ * Bitmaps from {@link BitmapPool} are reused for decoding when possible.
  * If any EXIF config is found - bitmap is transformed properly.
  */
 public class BitmapLoadTask extends AsyncTask<Void, Void, BitmapLoadTask.BitmapWorkerResult> {
@@ -42,6 +45,7 @@ public class BitmapLoadTask extends AsyncTask<Void, Void, BitmapLoadTask.BitmapW
     private Uri mOutputUri;
     private final int mRequiredWidth;
     private final int mRequiredHeight;
+    private final Bitmap.Config mBitmapConfig;
 
     private final BitmapLoadCallback mBitmapLoadCallback;
 
@@ -66,11 +70,20 @@ public class BitmapLoadTask extends AsyncTask<Void, Void, BitmapLoadTask.BitmapW
                           @NonNull Uri inputUri, @Nullable Uri outputUri,
                           int requiredWidth, int requiredHeight,
                           BitmapLoadCallback loadCallback) {
+        this(context, inputUri, outputUri, requiredWidth, requiredHeight, null, loadCallback);
+    }
+
+    public BitmapLoadTask(@NonNull Context context,
+                          @NonNull Uri inputUri, @Nullable Uri outputUri,
+                          int requiredWidth, int requiredHeight,
+                          @Nullable Bitmap.Config config,
+                          BitmapLoadCallback loadCallback) {
         mContext = new WeakReference<>(context);
         mInputUri = inputUri;
         mOutputUri = outputUri;
         mRequiredWidth = requiredWidth;
         mRequiredHeight = requiredHeight;
+        mBitmapConfig = config;
         mBitmapLoadCallback = loadCallback;
     }
 
@@ -93,21 +106,40 @@ public class BitmapLoadTask extends AsyncTask<Void, Void, BitmapLoadTask.BitmapW
             return new BitmapWorkerResult(e);
         }
 
+        Bitmap.Config config = getBitmapConfig();
         BitmapFactory.Options options = new BitmapFactory.Options();
         options.inJustDecodeBounds = true;
         try {
             InputStream stream = context.getContentResolver().openInputStream(mInputUri);
-            BitmapFactory.decodeStream(stream, null, options);
-            options.inSampleSize = BitmapLoadUtils.computeSize(options.outWidth,options.outHeight);
+            try {
+                BitmapFactory.decodeStream(stream, null, options);
+            } finally {
+                BitmapLoadUtils.close(stream);
+            }
+            int requiredWidth = mRequiredWidth, requiredHeight = mRequiredHeight;
+            if (requiredWidth <= 0 || requiredHeight <= 0) {
+                requiredWidth = requiredHeight = BitmapLoadUtils.calculateMaxBitmapSize(context);
+            }
+            options.inSampleSize = BitmapLoadUtils.computeSize(options.outWidth, options.outHeight,
+                    requiredWidth, requiredHeight, config);
         } catch (Exception e) {
             e.printStackTrace();
         }
+        int srcWidth = options.outWidth;
+        int srcHeight = options.outHeight;
         options.inJustDecodeBounds = false;
+        options.inPreferredConfig = config;
+        boolean isReusable = isReusableConfig(config);
+        options.inMutable = isReusable;
 
         Bitmap decodeSampledBitmap = null;
 
         boolean decodeAttemptSuccess = false;
         while (!decodeAttemptSuccess) {
+            if (isReusable && options.inSampleSize > 0) {
+                options.inBitmap = BitmapPool.getInstance().get(srcWidth / options.inSampleSize,
+                        srcHeight / options.inSampleSize, config);
+            }
             try {
                 InputStream stream = context.getContentResolver().openInputStream(mInputUri);
                 try {
@@ -118,10 +150,20 @@ public class BitmapLoadTask extends AsyncTask<Void, Void, BitmapLoadTask.BitmapW
                 } finally {
                     BitmapLoadUtils.close(stream);
                 }
-                if (BitmapLoadUtils.checkSize(decodeSampledBitmap, options)) continue;
                 decodeAttemptSuccess = true;
+            } catch (IllegalArgumentException e) {
+                if (options.inBitmap == null) {
+                    return new BitmapWorkerResult(new IllegalArgumentException("Bitmap could not be decoded from the Uri: [" + mInputUri + "]", e));
+                }
+                // pooled bitmap can't hold this image, decode into a new one
+                Log.w(TAG, "doInBackground: inBitmap could not be reused", e);
+                BitmapPool.getInstance().put(options.inBitmap);
+                isReusable = false;
+                options.inBitmap = null;
             } catch (OutOfMemoryError error) {
                 Log.e(TAG, "doInBackground: BitmapFactory.decodeFileDescriptor: ", error);
+                BitmapPool.getInstance().clear();
+                options.inBitmap = null;
                 options.inSampleSize *= 2;
             } catch (IOException e) {
                 Log.e(TAG, "doInBackground: ImageDecoder.createSource: ", e);
@@ -147,12 +189,38 @@ public class BitmapLoadTask extends AsyncTask<Void, Void, BitmapLoadTask.BitmapW
             matrix.postScale(exifTranslation, 1);
         }
         if (!matrix.isIdentity()) {
-            return new BitmapWorkerResult(BitmapLoadUtils.transformBitmap(decodeSampledBitmap, matrix), exifInfo);
+            Bitmap transformedBitmap = BitmapLoadUtils.transformBitmap(decodeSampledBitmap, matrix);
+            if (transformedBitmap != decodeSampledBitmap) {
+                BitmapPool.getInstance().put(decodeSampledBitmap);
+            }
+            return new BitmapWorkerResult(transformedBitmap, exifInfo);
         }
 
         return new BitmapWorkerResult(decodeSampledBitmap, exifInfo);
     }
 
+    /**
+     * {@link Bitmap.Config#HARDWARE} is only available since O, fall back to ARGB_8888 before.
+     */
+    @NonNull
+    private Bitmap.Config getBitmapConfig() {
+        if (mBitmapConfig == null) {
+            return Bitmap.Config.ARGB_8888;
+        }
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O && mBitmapConfig != Bitmap.Config.RGB_565) {
+            return Bitmap.Config.ARGB_8888;
+        }
+        return mBitmapConfig;
+    }
+
+    /**
+     * Hardware bitmaps are immutable and can't be decoded into an existing bitmap.
+     */
+    private static boolean isReusableConfig(@NonNull Bitmap.Config config) {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT
+                && (Build.VERSION.SDK_INT < Build.VERSION_CODES.O || config != Bitmap.Config.HARDWARE);
+    }
+
     private void processInputUri() throws NullPointerException, IOException {
         String inputUriScheme = mInputUri.getScheme();
         Log.d(TAG, "Uri scheme: " + inputUriScheme);
@@ -3,14 +3,10 @@ package com.yalantis.ucrop.util;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
 import android.graphics.Matrix;
-import android.graphics.Point;
 import android.net.Uri;
 import android.os.AsyncTask;
 import android.util.Log;
-import android.view.Display;
-import android.view.WindowManager;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -37,7 +33,19 @@ public class BitmapLoadUtils {
                                                 int requiredWidth, int requiredHeight,
                                                 BitmapLoadCallback loadCallback) {
 
-        new BitmapLoadTask(context, uri, outputUri, requiredWidth, requiredHeight, loadCallback)
+        decodeBitmapInBackground(context, uri, outputUri, requiredWidth, requiredHeight, null, loadCallback);
+    }
+
+    /**
+     * @param config - config of the decoded bitmap, {@link Bitmap.Config#ARGB_8888} if null
+     */
+    public static void decodeBitmapInBackground(@NonNull Context context,
+                                                @NonNull Uri uri, @Nullable Uri outputUri,
+                                                int requiredWidth, int requiredHeight,
+                                                @Nullable Bitmap.Config config,
+                                                BitmapLoadCallback loadCallback) {
+
+        new BitmapLoadTask(context, uri, outputUri, requiredWidth, requiredHeight, config, loadCallback)
                 .executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
     }
 
@@ -102,6 +110,47 @@ public class BitmapLoadUtils {
         }
     }
 
+    /**
+     * Pick inSampleSize before decoding, so the decoded bitmap fits into
+     * both the required size and the memory that is available for it.
+     *
+     * @param srcWidth  src width
+     * @param srcHeight src height
+     * @param reqWidth  max width of the decoded bitmap, ignored if not positive
+     * @param reqHeight max height of the decoded bitmap, ignored if not positive
+     * @param config    config of the decoded bitmap
+     * @return inSampleSize
+     */
+    public static int computeSize(int srcWidth, int srcHeight, int reqWidth, int reqHeight, @NonNull Bitmap.Config config) {
+        int inSampleSize = Math.max(1, computeSize(srcWidth, srcHeight));
+        if (srcWidth <= 0 || srcHeight <= 0) {
+            return inSampleSize;
+        }
+        if (reqWidth > 0 && reqHeight > 0) {
+            while (srcWidth / inSampleSize > reqWidth || srcHeight / inSampleSize > reqHeight) {
+                inSampleSize *= 2;
+            }
+        }
+        long memoryBudget = getBitmapMemoryBudget();
+        int bytesPerPixel = BitmapPool.getBytesPerPixel(config);
+        while ((long) (srcWidth / inSampleSize) * (srcHeight / inSampleSize) * bytesPerPixel > memoryBudget) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    /**
+     * Max byte count of a single decoded bitmap, bounded by {@link #getTotalMemory()}
+     * and by the heap memory that is still free.
+     *
+     * @return
+     */
+    public static long getBitmapMemoryBudget() {
+        Runtime runtime = Runtime.getRuntime();
+        long availableMemory = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        return Math.min(getTotalMemory(), availableMemory);
+    }
+
     /**
      * Gets the zoom of the image
      *
@@ -110,7 +159,6 @@ public class BitmapLoadUtils {
      * @return
      */
     public static int[] getMaxImageSize(Context context, Uri mInputUri) {
-        int maxBitmapSize = BitmapLoadUtils.calculateMaxBitmapSize(context);
         BitmapFactory.Options options = new BitmapFactory.Options();
         options.inJustDecodeBounds = true;
         try {
@@ -142,6 +190,7 @@ public class BitmapLoadUtils {
             }
         }
         if (options.outWidth <= 0 || options.outHeight <= 0) {
+            int maxBitmapSize = BitmapLoadUtils.calculateMaxBitmapSize(context);
             return new int[]{maxBitmapSize, maxBitmapSize};
         } else {
             return new int[]{options.outWidth / options.inSampleSize, options.outHeight / options.inSampleSize};
@@ -220,38 +269,23 @@ public class BitmapLoadUtils {
 
     /**
      * This method calculates maximum size of both width and height of bitmap.
-     * It is twice the device screen diagonal for default implementation (extra quality to zoom image).
+     * It is the device screen diagonal for default implementation.
      * Size cannot exceed max texture size.
+     * Device limits come from {@link DeviceCapabilityCache}, they are only probed on the first call.
      *
      * @return - max bitmap size in pixels.
      */
-    @SuppressWarnings({"SuspiciousNameCombination", "deprecation"})
     public static int calculateMaxBitmapSize(@NonNull Context context) {
-        WindowManager wm = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
-        Display display;
-        int width, height;
-        Point size = new Point();
-
-        if (wm != null) {
-            display = wm.getDefaultDisplay();
-            display.getSize(size);
-        }
-
-        width = size.x;
-        height = size.y;
-
-        // Twice the device screen diagonal as default
-        int maxBitmapSize = (int) Math.sqrt(Math.pow(width, 2) + Math.pow(height, 2));
+        int maxBitmapSize = DeviceCapabilityCache.getScreenDiagonal(context);
 
         // Check for max texture size via Canvas
-        Canvas canvas = new Canvas();
-        final int maxCanvasSize = Math.min(canvas.getMaximumBitmapWidth(), canvas.getMaximumBitmapHeight());
+        final int maxCanvasSize = DeviceCapabilityCache.getMaxCanvasBitmapSize(context);
         if (maxCanvasSize > 0) {
             maxBitmapSize = Math.min(maxBitmapSize, maxCanvasSize);
         }
 
         // Check for max texture size via GL
-        final int maxTextureSize = EglUtils.getMaxTextureSize();
+        final int maxTextureSize = DeviceCapabilityCache.getMaxTextureSize(context);
         if (maxTextureSize > 0) {
             maxBitmapSize = Math.min(maxBitmapSize, maxTextureSize);
         }
@@ -260,6 +294,23 @@ public class BitmapLoadUtils {
         return maxBitmapSize;
     }
 
+    /**
+     * @param configName - name of a {@link Bitmap.Config}
+     * @return config or null if the name is empty or not supported on this device
+     */
+    @Nullable
+    public static Bitmap.Config getBitmapConfig(@Nullable String configName) {
+        if (configName == null || configName.length() == 0) {
+            return null;
+        }
+        try {
+            return Bitmap.Config.valueOf(configName);
+        } catch (IllegalArgumentException e) {
+            Log.e(TAG, "getBitmapConfig: " + configName, e);
+            return null;
+        }
+    }
+
     @SuppressWarnings("ConstantConditions")
     public static void close(@Nullable Closeable c) {
         if (c != null && c instanceof Closeable) { // java.lang.IncompatibleClassChangeError: interface not implemented
@@ -0,0 +1,188 @@
+package com.yalantis.ucrop.util;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Pool of mutable bitmaps that can be reused as {@link android.graphics.BitmapFactory.Options#inBitmap}
+ * by {@link com.yalantis.ucrop.task.BitmapLoadTask}.
+ * <p/>
+ * Bitmaps are grouped by config and allocation size, a bitmap is handed out for a decode
+ * if it has the same config and its allocation fits the decoded image without wasting more than
+ * {@link #MAX_SIZE_MULTIPLE} times the required bytes. Least recently pooled bitmaps are recycled first
+ * when the pool exceeds its byte limit.
+ * <p/>
+ * A bitmap that is still read by a {@link com.yalantis.ucrop.task.BitmapCropTask} is held with {@link #hold(Bitmap)},
+ * putting it is deferred until the last {@link #release(Bitmap)}, so it is never handed out to a decode while in use.
+ */
+public class BitmapPool {
+
+    private static final int MAX_SIZE_MULTIPLE = 4;
+
+    /**
+     * 1/8 of the application heap
+     */
+    private static final int MEMORY_CACHE_DIVIDER = 8;
+
+    private static BitmapPool sInstance;
+
+    private final Map<Bitmap.Config, NavigableMap<Integer, LinkedList<Bitmap>>> mSortedSizes = new HashMap<>();
+    private final LinkedList<Bitmap> mLruBitmaps = new LinkedList<>();
+    private final Map<Bitmap, Integer> mHeldBitmaps = new HashMap<>();
+    private final Set<Bitmap> mDeferredBitmaps = new HashSet<>();
+    private final long mMaxSize;
+    private long mCurrentSize;
+
+    public static synchronized BitmapPool getInstance() {
+        if (sInstance == null) {
+            sInstance = new BitmapPool(Runtime.getRuntime().maxMemory() / MEMORY_CACHE_DIVIDER);
+        }
+        return sInstance;
+    }
+
+    private BitmapPool(long maxSize) {
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * Get a bitmap that can be used as inBitmap for a decode of the given size.
+     *
+     * @return pooled bitmap or null if there is no suitable one
+     */
+    @Nullable
+    public synchronized Bitmap get(int width, int height, @NonNull Bitmap.Config config) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT || width <= 0 || height <= 0) {
+            return null;
+        }
+        NavigableMap<Integer, LinkedList<Bitmap>> sizes = mSortedSizes.get(config);
+        if (sizes == null) {
+            return null;
+        }
+        int size = width * height * getBytesPerPixel(config);
+        Integer possibleSize = sizes.ceilingKey(size);
+        if (possibleSize == null || possibleSize > size * MAX_SIZE_MULTIPLE) {
+            return null;
+        }
+        LinkedList<Bitmap> bitmaps = sizes.get(possibleSize);
+        Bitmap bitmap = bitmaps.removeLast();
+        if (bitmaps.isEmpty()) {
+            sizes.remove(possibleSize);
+        }
+        mLruBitmaps.remove(bitmap);
+        mCurrentSize -= possibleSize;
+        return bitmap;
+    }
+
+    /**
+     * Return a bitmap that is no longer displayed or used to the pool.
+     * Bitmaps that can't be reused are ignored.
+     */
+    public synchronized void put(@Nullable Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable() || bitmap.getConfig() == null
+                || Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT || mLruBitmaps.contains(bitmap)) {
+            return;
+        }
+        if (mHeldBitmaps.containsKey(bitmap)) {
+            mDeferredBitmaps.add(bitmap);
+            return;
+        }
+        int size = bitmap.getAllocationByteCount();
+        if (size > mMaxSize) {
+            return;
+        }
+        NavigableMap<Integer, LinkedList<Bitmap>> sizes = mSortedSizes.get(bitmap.getConfig());
+        if (sizes == null) {
+            sizes = new TreeMap<>();
+            mSortedSizes.put(bitmap.getConfig(), sizes);
+        }
+        LinkedList<Bitmap> bitmaps = sizes.get(size);
+        if (bitmaps == null) {
+            bitmaps = new LinkedList<>();
+            sizes.put(size, bitmaps);
+        }
+        bitmaps.add(bitmap);
+        mLruBitmaps.add(bitmap);
+        mCurrentSize += size;
+        trimToSize(mMaxSize);
+    }
+
+    /**
+     * Mark a bitmap as in use, it is not pooled until it is released.
+     */
+    public synchronized void hold(@Nullable Bitmap bitmap) {
+        if (bitmap == null) {
+            return;
+        }
+        Integer count = mHeldBitmaps.get(bitmap);
+        mHeldBitmaps.put(bitmap, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * Release a bitmap marked with {@link #hold(Bitmap)}, if it was put in the meantime it is pooled now.
+     */
+    public synchronized void release(@Nullable Bitmap bitmap) {
+        Integer count = bitmap != null ? mHeldBitmaps.get(bitmap) : null;
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            mHeldBitmaps.put(bitmap, count - 1);
+            return;
+        }
+        mHeldBitmaps.remove(bitmap);
+        if (mDeferredBitmaps.remove(bitmap)) {
+            put(bitmap);
+        }
+    }
+
+    /**
+     * Recycle all pooled bitmaps.
+     */
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    private void trimToSize(long size) {
+        while (mCurrentSize > size && !mLruBitmaps.isEmpty()) {
+            Bitmap bitmap = mLruBitmaps.removeFirst();
+            int bitmapSize = bitmap.getAllocationByteCount();
+            NavigableMap<Integer, LinkedList<Bitmap>> sizes = mSortedSizes.get(bitmap.getConfig());
+            if (sizes != null) {
+                LinkedList<Bitmap> bitmaps = sizes.get(bitmapSize);
+                if (bitmaps != null) {
+                    bitmaps.remove(bitmap);
+                    if (bitmaps.isEmpty()) {
+                        sizes.remove(bitmapSize);
+                    }
+                }
+            }
+            mCurrentSize -= bitmapSize;
+            bitmap.recycle();
+        }
+    }
+
+    public static int getBytesPerPixel(@NonNull Bitmap.Config config) {
+        switch (config) {
+            case ALPHA_8:
+                return 1;
+            case RGB_565:
+            case ARGB_4444:
+                return 2;
+            case RGBA_F16:
+                return 8;
+            default:
+                return 4;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.yalantis.ucrop.util;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Canvas;
+import android.graphics.Point;
+import android.os.AsyncTask;
+import android.os.Build;
+import android.text.TextUtils;
+import android.view.Display;
+import android.view.WindowManager;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Process wide cache of device capabilities that are expensive to probe.
+ * <p/>
+ * Max texture size (EGL context) and max canvas bitmap size are probed once and persisted,
+ * probes are repeated only after a system update (build fingerprint changes).
+ */
+public class DeviceCapabilityCache {
+
+    private static final String SP_NAME = "PictureDeviceCapability";
+    private static final String KEY_FINGERPRINT = "fingerprint";
+    private static final String KEY_MAX_TEXTURE_SIZE = "max_texture_size";
+    private static final String KEY_MAX_CANVAS_BITMAP_SIZE = "max_canvas_bitmap_size";
+
+    private static volatile boolean sLoaded;
+    private static int sMaxTextureSize;
+    private static int sMaxCanvasBitmapSize;
+    private static int sScreenDiagonal;
+
+    private DeviceCapabilityCache() {
+
+    }
+
+    /**
+     * Load or probe the capabilities on a background thread, so the first caller on the UI thread doesn't have to.
+     */
+    public static void prefetch(@NonNull Context context) {
+        if (sLoaded) {
+            return;
+        }
+        final Context appContext = context.getApplicationContext();
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                load(appContext);
+            }
+        });
+    }
+
+    /**
+     * @return max texture size reported by GL or 0 if it couldn't be retrieved
+     */
+    public static int getMaxTextureSize(@NonNull Context context) {
+        load(context);
+        return sMaxTextureSize;
+    }
+
+    /**
+     * @return max size for both width and height of a bitmap drawn on a canvas
+     */
+    public static int getMaxCanvasBitmapSize(@NonNull Context context) {
+        load(context);
+        return sMaxCanvasBitmapSize;
+    }
+
+    /**
+     * Screen size can change with display settings, so it is computed once per process and not persisted.
+     *
+     * @return device screen diagonal in pixels
+     */
+    @SuppressWarnings("deprecation")
+    public static int getScreenDiagonal(@NonNull Context context) {
+        if (sScreenDiagonal <= 0) {
+            WindowManager wm = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+            Point size = new Point();
+            if (wm != null) {
+                Display display = wm.getDefaultDisplay();
+                display.getSize(size);
+            }
+            sScreenDiagonal = (int) Math.sqrt(Math.pow(size.x, 2) + Math.pow(size.y, 2));
+        }
+        return sScreenDiagonal;
+    }
+
+    private static synchronized void load(@NonNull Context context) {
+        if (sLoaded) {
+            return;
+        }
+        SharedPreferences sp = context.getApplicationContext().getSharedPreferences(SP_NAME, Context.MODE_PRIVATE);
+        if (TextUtils.equals(Build.FINGERPRINT, sp.getString(KEY_FINGERPRINT, null))
+                && sp.contains(KEY_MAX_TEXTURE_SIZE) && sp.contains(KEY_MAX_CANVAS_BITMAP_SIZE)) {
+            sMaxTextureSize = sp.getInt(KEY_MAX_TEXTURE_SIZE, 0);
+            sMaxCanvasBitmapSize = sp.getInt(KEY_MAX_CANVAS_BITMAP_SIZE, 0);
+        } else {
+            Canvas canvas = new Canvas();
+            sMaxCanvasBitmapSize = Math.min(canvas.getMaximumBitmapWidth(), canvas.getMaximumBitmapHeight());
+            sMaxTextureSize = EglUtils.getMaxTextureSize();
+            sp.edit()
+                    .putString(KEY_FINGERPRINT, Build.FINGERPRINT)
+                    .putInt(KEY_MAX_TEXTURE_SIZE, sMaxTextureSize)
+                    .putInt(KEY_MAX_CANVAS_BITMAP_SIZE, sMaxCanvasBitmapSize)
+                    .apply();
+        }
+        sLoaded = true;
+    }
+}
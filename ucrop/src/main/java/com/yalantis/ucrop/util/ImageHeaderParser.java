@@ -37,6 +37,7 @@ import android.os.ParcelFileDescriptor;
 import android.text.TextUtils;
 import android.util.Log;
 
+import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.exifinterface.media.ExifInterface;
 
@@ -72,6 +73,14 @@ public class ImageHeaderParser {
     private static final int SEGMENT_START_ID = 0xFF;
     private static final int EXIF_SEGMENT_TYPE = 0xE1;
     private static final int ORIENTATION_TAG_TYPE = 0x0112;
+    private static final int IMAGE_WIDTH_TAG_TYPE = 0x0100;
+    private static final int IMAGE_LENGTH_TAG_TYPE = 0x0101;
+    private static final int EXIF_IFD_POINTER_TAG_TYPE = 0x8769;
+    private static final int PIXEL_X_DIMENSION_TAG_TYPE = 0xA002;
+    private static final int PIXEL_Y_DIMENSION_TAG_TYPE = 0xA003;
+    private static final int FORMAT_UNSIGNED_SHORT = 3;
+    private static final int FORMAT_UNSIGNED_LONG = 4;
+    private static final int MAX_SEGMENT_LENGTH = 0xFFFF;
     private static final int[] BYTES_PER_FORMAT = {0, 1, 1, 2, 4, 8, 1, 1, 2, 4, 8, 4, 8};
 
     private final Reader reader;
@@ -324,6 +333,8 @@ public class ImageHeaderParser {
         long skip(long total) throws IOException;
 
         int read(byte[] buffer, int byteCount) throws IOException;
+
+        int read(byte[] buffer, int offset, int byteCount) throws IOException;
     }
 
     private static class StreamReader implements Reader {
@@ -373,15 +384,155 @@ public class ImageHeaderParser {
 
         @Override
         public int read(byte[] buffer, int byteCount) throws IOException {
+            return read(buffer, 0, byteCount);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int byteCount) throws IOException {
             int toRead = byteCount;
             int read;
-            while (toRead > 0 && ((read = is.read(buffer, byteCount - toRead, toRead)) != -1)) {
+            while (toRead > 0 && ((read = is.read(buffer, offset + byteCount - toRead, toRead)) != -1)) {
                 toRead -= read;
             }
             return byteCount - toRead;
         }
     }
 
+    /**
+     * Build a complete APP1 exif segment (marker and length included) for a cropped output image
+     * from the exif segment of the original jpeg.
+     * <p>
+     * The original segment is copied as is, width and height tags are overwritten with the given
+     * ones, orientation is reset and the link to the thumbnail IFD is dropped, since the thumbnail
+     * no longer matches the output. The result can be written right after the SOI marker of the
+     * encoded output, so the output file doesn't have to be rewritten by {@link ExifInterface}.
+     *
+     * @param is     The stream of the original input file, it is not closed by this method
+     * @param width  output image new width
+     * @param height output image new height
+     * @return the APP1 segment or null if the input is not a jpeg or has no usable exif segment
+     */
+    @Nullable
+    public static byte[] buildExifSegment(InputStream is, int width, int height) {
+        try {
+            ImageHeaderParser parser = new ImageHeaderParser(is);
+            if (parser.reader.getUInt16() != EXIF_MAGIC_NUMBER) {
+                return null;
+            }
+            int exifSegmentLength = parser.moveToExifSegmentAndGetLength();
+            if (exifSegmentLength <= 0 || exifSegmentLength + 2 > MAX_SEGMENT_LENGTH) {
+                return null;
+            }
+            byte[] segment = new byte[exifSegmentLength + 4];
+            int read = parser.reader.read(segment, 4, exifSegmentLength);
+            if (read != exifSegmentLength) {
+                return null;
+            }
+            ByteBuffer data = ByteBuffer.wrap(segment, 4, exifSegmentLength).slice();
+            if (!hasJpegExifPreamble(data) || !patchExifSegment(data, width, height)) {
+                return null;
+            }
+            segment[0] = (byte) SEGMENT_START_ID;
+            segment[1] = (byte) EXIF_SEGMENT_TYPE;
+            segment[2] = (byte) ((exifSegmentLength + 2) >> 8);
+            segment[3] = (byte) (exifSegmentLength + 2);
+            return segment;
+        } catch (IOException e) {
+            Log.d(TAG, e.getMessage(), e);
+        } catch (IndexOutOfBoundsException e) {
+            Log.d(TAG, "Malformed exif segment", e);
+        }
+        return null;
+    }
+
+    private static boolean hasJpegExifPreamble(ByteBuffer data) {
+        if (data.limit() <= JPEG_EXIF_SEGMENT_PREAMBLE_BYTES.length) {
+            return false;
+        }
+        for (int i = 0; i < JPEG_EXIF_SEGMENT_PREAMBLE_BYTES.length; i++) {
+            if (data.get(i) != JPEG_EXIF_SEGMENT_PREAMBLE_BYTES[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Overwrites dimension and orientation tags of IFD0 and of the exif sub IFD in place.
+     *
+     * @return false if the segment layout is not what we expect
+     */
+    private static boolean patchExifSegment(ByteBuffer data, int width, int height) {
+        final int headerOffsetSize = JPEG_EXIF_SEGMENT_PREAMBLE.length();
+        short byteOrderIdentifier = data.getShort(headerOffsetSize);
+        if (byteOrderIdentifier == MOTOROLA_TIFF_MAGIC_NUMBER) {
+            data.order(ByteOrder.BIG_ENDIAN);
+        } else if (byteOrderIdentifier == INTEL_TIFF_MAGIC_NUMBER) {
+            data.order(ByteOrder.LITTLE_ENDIAN);
+        } else {
+            return false;
+        }
+
+        int firstIfdOffset = data.getInt(headerOffsetSize + 4) + headerOffsetSize;
+        int exifIfdOffset = patchIfd(data, firstIfdOffset, width, height, true);
+        if (exifIfdOffset == -1) {
+            return false;
+        }
+        if (exifIfdOffset > 0) {
+            patchIfd(data, exifIfdOffset + headerOffsetSize, width, height, false);
+        }
+        return true;
+    }
+
+    /**
+     * @return offset of the exif sub IFD, 0 if there is none or -1 if the IFD is out of bounds
+     */
+    private static int patchIfd(ByteBuffer data, int ifdOffset, int width, int height, boolean isFirstIfd) {
+        if (ifdOffset < 0 || ifdOffset + 2 > data.limit()) {
+            return -1;
+        }
+        int tagCount = data.getShort(ifdOffset) & 0xFFFF;
+        int nextIfdPointerOffset = calcTagOffset(ifdOffset, tagCount);
+        if (nextIfdPointerOffset + 4 > data.limit()) {
+            return -1;
+        }
+        int exifIfdOffset = 0;
+        int tagOffset, tagType;
+        for (int i = 0; i < tagCount; i++) {
+            tagOffset = calcTagOffset(ifdOffset, i);
+            tagType = data.getShort(tagOffset) & 0xFFFF;
+            if (isFirstIfd && tagType == ORIENTATION_TAG_TYPE) {
+                putInlineValue(data, tagOffset, ExifInterface.ORIENTATION_UNDEFINED);
+            } else if (isFirstIfd && tagType == IMAGE_WIDTH_TAG_TYPE
+                    || !isFirstIfd && tagType == PIXEL_X_DIMENSION_TAG_TYPE) {
+                putInlineValue(data, tagOffset, width);
+            } else if (isFirstIfd && tagType == IMAGE_LENGTH_TAG_TYPE
+                    || !isFirstIfd && tagType == PIXEL_Y_DIMENSION_TAG_TYPE) {
+                putInlineValue(data, tagOffset, height);
+            } else if (isFirstIfd && tagType == EXIF_IFD_POINTER_TAG_TYPE) {
+                exifIfdOffset = data.getInt(tagOffset + 8);
+            }
+        }
+        if (isFirstIfd) {
+            // The thumbnail in IFD1 shows the uncropped image, unlink it.
+            data.putInt(nextIfdPointerOffset, 0);
+        }
+        return exifIfdOffset;
+    }
+
+    private static void putInlineValue(ByteBuffer data, int tagOffset, int value) {
+        int formatCode = data.getShort(tagOffset + 2);
+        int componentCount = data.getInt(tagOffset + 4);
+        if (componentCount != 1) {
+            return;
+        }
+        if (formatCode == FORMAT_UNSIGNED_SHORT) {
+            data.putShort(tagOffset + 8, (short) value);
+        } else if (formatCode == FORMAT_UNSIGNED_LONG) {
+            data.putInt(tagOffset + 8, value);
+        }
+    }
+
     /**
      * Copy exif information represented by originalExif into the file represented by imageOutputPath.
      *
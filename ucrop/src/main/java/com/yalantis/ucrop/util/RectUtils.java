@@ -18,12 +18,26 @@ public class RectUtils {
      * @return the float array of corners (8 floats)
      */
     public static float[] getCornersFromRect(RectF r) {
-        return new float[]{
-                r.left, r.top,
-                r.right, r.top,
-                r.right, r.bottom,
-                r.left, r.bottom
-        };
+        return getCornersFromRect(r, new float[8]);
+    }
+
+    /**
+     * Same as {@link #getCornersFromRect(RectF)} but writes into the given array.
+     *
+     * @param r   the rectangle to get the corners of
+     * @param out the float array of corners (8 floats)
+     * @return out
+     */
+    public static float[] getCornersFromRect(RectF r, float[] out) {
+        out[0] = r.left;
+        out[1] = r.top;
+        out[2] = r.right;
+        out[3] = r.top;
+        out[4] = r.right;
+        out[5] = r.bottom;
+        out[6] = r.left;
+        out[7] = r.bottom;
+        return out;
     }
 
     /**
@@ -39,8 +53,20 @@ public class RectUtils {
      * @return the float array of width and height (2 floats)
      */
     public static float[] getRectSidesFromCorners(float[] corners) {
-        return new float[]{(float) Math.sqrt(Math.pow(corners[0] - corners[2], 2) + Math.pow(corners[1] - corners[3], 2)),
-                (float) Math.sqrt(Math.pow(corners[2] - corners[4], 2) + Math.pow(corners[3] - corners[5], 2))};
+        return getRectSidesFromCorners(corners, new float[2]);
+    }
+
+    /**
+     * Same as {@link #getRectSidesFromCorners(float[])} but writes into the given array.
+     *
+     * @param corners the float array of corners (8 floats)
+     * @param out     the float array of width and height (2 floats)
+     * @return out
+     */
+    public static float[] getRectSidesFromCorners(float[] corners, float[] out) {
+        out[0] = (float) Math.sqrt(Math.pow(corners[0] - corners[2], 2) + Math.pow(corners[1] - corners[3], 2));
+        out[1] = (float) Math.sqrt(Math.pow(corners[2] - corners[4], 2) + Math.pow(corners[3] - corners[5], 2));
+        return out;
     }
 
     public static float[] getCenterFromRect(RectF r) {
@@ -55,7 +81,18 @@ public class RectUtils {
      * @return smallest rectangle containing coordinates
      */
     public static RectF trapToRect(float[] array) {
-        RectF r = new RectF(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+        return trapToRect(array, new RectF());
+    }
+
+    /**
+     * Same as {@link #trapToRect(float[])} but writes into the given rectangle.
+     *
+     * @param array array of 2D coordinates
+     * @param r     rectangle that receives the result
+     * @return r
+     */
+    public static RectF trapToRect(float[] array, RectF r) {
+        r.set(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
                 Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
         for (int i = 1; i < array.length; i += 2) {
             float x = Math.round(array[i - 1] * 10) / 10.f;
@@ -23,7 +23,6 @@ import com.yalantis.ucrop.util.CubicEasing;
 import com.yalantis.ucrop.util.RectUtils;
 
 import java.lang.ref.WeakReference;
-import java.util.Arrays;
 
 /**
  * Created by Oleksii Shliama (https://github.com/shliama).
@@ -43,12 +42,23 @@ public class CropImageView extends TransformImageView {
 
     private final Matrix mTempMatrix = new Matrix();
 
+    // Preallocated buffers, so wrapping and zoom animations don't allocate per frame
+    private final float[] mTempImageCorners = new float[8];
+    private final float[] mUnrotatedImageCorners = new float[8];
+    private final float[] mUnrotatedCropBoundsCorners = new float[8];
+    private final float[] mImageIndents = new float[4];
+    private final float[] mCurrentImageSides = new float[2];
+    private final RectF mTempCropRect = new RectF();
+    private final RectF mUnrotatedImageRect = new RectF();
+    private final RectF mUnrotatedCropRect = new RectF();
+
     private float mTargetAspectRatio;
     private float mMaxScaleMultiplier = DEFAULT_MAX_SCALE_MULTIPLIER;
 
     private CropBoundsChangeListener mCropBoundsChangeListener;
 
-    private Runnable mWrapCropBoundsRunnable, mZoomImageToPositionRunnable = null;
+    private WrapCropBoundsRunnable mWrapCropBoundsRunnable;
+    private ZoomImageToPosition mZoomImageToPositionRunnable;
 
     private float mMaxScale, mMinScale;
     private int mMaxResultImageSizeX = 0, mMaxResultImageSizeY = 0;
@@ -291,32 +301,35 @@ public class CropImageView extends TransformImageView {
             mTempMatrix.reset();
             mTempMatrix.setTranslate(deltaX, deltaY);
 
-            final float[] tempCurrentImageCorners = Arrays.copyOf(mCurrentImageCorners, mCurrentImageCorners.length);
-            mTempMatrix.mapPoints(tempCurrentImageCorners);
+            mTempMatrix.mapPoints(mTempImageCorners, mCurrentImageCorners);
 
-            boolean willImageWrapCropBoundsAfterTranslate = isImageWrapCropBounds(tempCurrentImageCorners);
+            boolean willImageWrapCropBoundsAfterTranslate = isImageWrapCropBounds(mTempImageCorners);
 
             if (willImageWrapCropBoundsAfterTranslate) {
                 final float[] imageIndents = calculateImageIndents();
                 deltaX = -(imageIndents[0] + imageIndents[2]);
                 deltaY = -(imageIndents[1] + imageIndents[3]);
             } else {
-                RectF tempCropRect = new RectF(mCropRect);
+                mTempCropRect.set(mCropRect);
                 mTempMatrix.reset();
                 mTempMatrix.setRotate(getCurrentAngle());
-                mTempMatrix.mapRect(tempCropRect);
+                mTempMatrix.mapRect(mTempCropRect);
 
-                final float[] currentImageSides = RectUtils.getRectSidesFromCorners(mCurrentImageCorners);
+                final float[] currentImageSides = RectUtils.getRectSidesFromCorners(mCurrentImageCorners, mCurrentImageSides);
 
-                deltaScale = Math.max(tempCropRect.width() / currentImageSides[0],
-                        tempCropRect.height() / currentImageSides[1]);
+                deltaScale = Math.max(mTempCropRect.width() / currentImageSides[0],
+                        mTempCropRect.height() / currentImageSides[1]);
                 deltaScale = deltaScale * currentScale - currentScale;
             }
 
             if (animate) {
-                post(mWrapCropBoundsRunnable = new WrapCropBoundsRunnable(
-                        CropImageView.this, mImageToWrapCropBoundsAnimDuration, currentX, currentY, deltaX, deltaY,
-                        currentScale, deltaScale, willImageWrapCropBoundsAfterTranslate));
+                if (mWrapCropBoundsRunnable == null) {
+                    mWrapCropBoundsRunnable = new WrapCropBoundsRunnable(CropImageView.this);
+                }
+                removeCallbacks(mWrapCropBoundsRunnable);
+                mWrapCropBoundsRunnable.start(mImageToWrapCropBoundsAnimDuration, currentX, currentY, deltaX, deltaY,
+                        currentScale, deltaScale, willImageWrapCropBoundsAfterTranslate);
+                post(mWrapCropBoundsRunnable);
             } else {
                 postTranslate(deltaX, deltaY);
                 if (!willImageWrapCropBoundsAfterTranslate) {
@@ -332,27 +345,27 @@ public class CropImageView extends TransformImageView {
      * Third, depending on delta (its sign) put them or zero inside an array.
      * Fourth, using Matrix, rotate back those points (indents).
      *
-     * @return - the float array of image indents (4 floats) - in this order [left, top, right, bottom]
+     * @return - the float array of image indents (4 floats) - in this order [left, top, right, bottom],
+     * the array is reused by the next call
      */
     private float[] calculateImageIndents() {
         mTempMatrix.reset();
         mTempMatrix.setRotate(-getCurrentAngle());
 
-        float[] unrotatedImageCorners = Arrays.copyOf(mCurrentImageCorners, mCurrentImageCorners.length);
-        float[] unrotatedCropBoundsCorners = RectUtils.getCornersFromRect(mCropRect);
+        RectUtils.getCornersFromRect(mCropRect, mUnrotatedCropBoundsCorners);
 
-        mTempMatrix.mapPoints(unrotatedImageCorners);
-        mTempMatrix.mapPoints(unrotatedCropBoundsCorners);
+        mTempMatrix.mapPoints(mUnrotatedImageCorners, mCurrentImageCorners);
+        mTempMatrix.mapPoints(mUnrotatedCropBoundsCorners);
 
-        RectF unrotatedImageRect = RectUtils.trapToRect(unrotatedImageCorners);
-        RectF unrotatedCropRect = RectUtils.trapToRect(unrotatedCropBoundsCorners);
+        RectF unrotatedImageRect = RectUtils.trapToRect(mUnrotatedImageCorners, mUnrotatedImageRect);
+        RectF unrotatedCropRect = RectUtils.trapToRect(mUnrotatedCropBoundsCorners, mUnrotatedCropRect);
 
         float deltaLeft = unrotatedImageRect.left - unrotatedCropRect.left;
         float deltaTop = unrotatedImageRect.top - unrotatedCropRect.top;
         float deltaRight = unrotatedImageRect.right - unrotatedCropRect.right;
         float deltaBottom = unrotatedImageRect.bottom - unrotatedCropRect.bottom;
 
-        float indents[] = new float[4];
+        float[] indents = mImageIndents;
         indents[0] = (deltaLeft > 0) ? deltaLeft : 0;
         indents[1] = (deltaTop > 0) ? deltaTop : 0;
         indents[2] = (deltaRight < 0) ? deltaRight : 0;
@@ -423,13 +436,13 @@ public class CropImageView extends TransformImageView {
         mTempMatrix.reset();
         mTempMatrix.setRotate(-getCurrentAngle());
 
-        float[] unrotatedImageCorners = Arrays.copyOf(imageCorners, imageCorners.length);
-        mTempMatrix.mapPoints(unrotatedImageCorners);
+        mTempMatrix.mapPoints(mUnrotatedImageCorners, imageCorners);
 
-        float[] unrotatedCropBoundsCorners = RectUtils.getCornersFromRect(mCropRect);
-        mTempMatrix.mapPoints(unrotatedCropBoundsCorners);
+        RectUtils.getCornersFromRect(mCropRect, mUnrotatedCropBoundsCorners);
+        mTempMatrix.mapPoints(mUnrotatedCropBoundsCorners);
 
-        return RectUtils.trapToRect(unrotatedImageCorners).contains(RectUtils.trapToRect(unrotatedCropBoundsCorners));
+        return RectUtils.trapToRect(mUnrotatedImageCorners, mUnrotatedImageRect)
+                .contains(RectUtils.trapToRect(mUnrotatedCropBoundsCorners, mUnrotatedCropRect));
     }
 
     /**
@@ -448,8 +461,12 @@ public class CropImageView extends TransformImageView {
         final float oldScale = getCurrentScale();
         final float deltaScale = scale - oldScale;
 
-        post(mZoomImageToPositionRunnable = new ZoomImageToPosition(CropImageView.this,
-                durationMs, oldScale, deltaScale, centerX, centerY));
+        if (mZoomImageToPositionRunnable == null) {
+            mZoomImageToPositionRunnable = new ZoomImageToPosition(CropImageView.this);
+        }
+        removeCallbacks(mZoomImageToPositionRunnable);
+        mZoomImageToPositionRunnable.start(durationMs, oldScale, deltaScale, centerX, centerY);
+        post(mZoomImageToPositionRunnable);
     }
 
     private void calculateImageScaleBounds() {
@@ -520,27 +537,28 @@ public class CropImageView extends TransformImageView {
      * Given values are interpolated during the animation time.
      * Runnable can be terminated either vie {@link #cancelAllAnimations()} method
      * or when certain conditions inside {@link WrapCropBoundsRunnable#run()} method are triggered.
+     * One instance is kept per view and restarted with {@link WrapCropBoundsRunnable#start}.
      */
     private static class WrapCropBoundsRunnable implements Runnable {
 
         private final WeakReference<CropImageView> mCropImageView;
 
-        private final long mDurationMs, mStartTime;
-        private final float mOldX, mOldY;
-        private final float mCenterDiffX, mCenterDiffY;
-        private final float mOldScale;
-        private final float mDeltaScale;
-        private final boolean mWillBeImageInBoundsAfterTranslate;
-
-        public WrapCropBoundsRunnable(CropImageView cropImageView,
-                                      long durationMs,
-                                      float oldX, float oldY,
-                                      float centerDiffX, float centerDiffY,
-                                      float oldScale, float deltaScale,
-                                      boolean willBeImageInBoundsAfterTranslate) {
+        private long mDurationMs, mStartTime;
+        private float mOldX, mOldY;
+        private float mCenterDiffX, mCenterDiffY;
+        private float mOldScale;
+        private float mDeltaScale;
+        private boolean mWillBeImageInBoundsAfterTranslate;
 
+        public WrapCropBoundsRunnable(CropImageView cropImageView) {
             mCropImageView = new WeakReference<>(cropImageView);
+        }
 
+        public void start(long durationMs,
+                          float oldX, float oldY,
+                          float centerDiffX, float centerDiffY,
+                          float oldScale, float deltaScale,
+                          boolean willBeImageInBoundsAfterTranslate) {
             mDurationMs = durationMs;
             mStartTime = System.currentTimeMillis();
             mOldX = oldX;
@@ -583,24 +601,25 @@ public class CropImageView extends TransformImageView {
      * Given values are interpolated during the animation time.
      * Runnable can be terminated either vie {@link #cancelAllAnimations()} method
      * or when certain conditions inside {@link ZoomImageToPosition#run()} method are triggered.
+     * One instance is kept per view and restarted with {@link ZoomImageToPosition#start}.
      */
     private static class ZoomImageToPosition implements Runnable {
 
         private final WeakReference<CropImageView> mCropImageView;
 
-        private final long mDurationMs, mStartTime;
-        private final float mOldScale;
-        private final float mDeltaScale;
-        private final float mDestX;
-        private final float mDestY;
-
-        public ZoomImageToPosition(CropImageView cropImageView,
-                                   long durationMs,
-                                   float oldScale, float deltaScale,
-                                   float destX, float destY) {
+        private long mDurationMs, mStartTime;
+        private float mOldScale;
+        private float mDeltaScale;
+        private float mDestX;
+        private float mDestY;
 
+        public ZoomImageToPosition(CropImageView cropImageView) {
             mCropImageView = new WeakReference<>(cropImageView);
+        }
 
+        public void start(long durationMs,
+                          float oldScale, float deltaScale,
+                          float destX, float destY) {
             mStartTime = System.currentTimeMillis();
             mDurationMs = durationMs;
             mOldScale = oldScale;
@@ -6,6 +6,7 @@ import android.graphics.Matrix;
 import android.graphics.RectF;
 import android.graphics.drawable.Drawable;
 import android.net.Uri;
+import android.os.Build;
 import android.util.AttributeSet;
 import android.util.Log;
 
@@ -19,6 +20,7 @@ import com.yalantis.ucrop.UCropImageEngine;
 import com.yalantis.ucrop.callback.BitmapLoadCallback;
 import com.yalantis.ucrop.model.ExifInfo;
 import com.yalantis.ucrop.util.BitmapLoadUtils;
+import com.yalantis.ucrop.util.BitmapPool;
 import com.yalantis.ucrop.util.FastBitmapDrawable;
 import com.yalantis.ucrop.util.FileUtils;
 import com.yalantis.ucrop.util.RectUtils;
@@ -54,6 +56,7 @@ public class TransformImageView extends AppCompatImageView {
     protected boolean mBitmapLaidOut = false;
 
     private int mMaxBitmapSize = 0;
+    private Bitmap.Config mPreviewBitmapConfig;
 
     private String mImageInputPath, mImageOutputPath;
     private Uri mImageInputUri, mImageOutputUri;
@@ -117,6 +120,24 @@ public class TransformImageView extends AppCompatImageView {
         return mMaxBitmapSize;
     }
 
+    /**
+     * Setter for {@link #mPreviewBitmapConfig} value.
+     * Be sure to call it before {@link #setImageURI(Uri)} or other image setters.
+     *
+     * With {@link Bitmap.Config#HARDWARE} the image is uploaded to the GPU once and gestures only change
+     * the draw matrix, {@link com.yalantis.ucrop.task.BitmapCropTask} decodes the input again for cropping.
+     *
+     * @param config - config of the bitmap that is decoded for the view, {@link Bitmap.Config#ARGB_8888} if null
+     */
+    public void setPreviewBitmapConfig(@Nullable Bitmap.Config config) {
+        mPreviewBitmapConfig = config;
+    }
+
+    @Nullable
+    public Bitmap.Config getPreviewBitmapConfig() {
+        return mPreviewBitmapConfig;
+    }
+
     @Override
     public void setImageBitmap(final Bitmap bitmap) {
         setImageDrawable(new FastBitmapDrawable(bitmap));
@@ -197,9 +218,16 @@ public class TransformImageView extends AppCompatImageView {
      * @param outputUri
      */
     private void useDefaultLoaderCrop(@NonNull Uri imageUri, @Nullable Uri outputUri) {
-        int maxBitmapSize = getMaxBitmapSize();
+        // when max bitmap size isn't set it is calculated by the load task, off the UI thread
+        int maxBitmapSize = mMaxBitmapSize;
+        Bitmap.Config config = mPreviewBitmapConfig;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && config == Bitmap.Config.HARDWARE
+                && getLayerType() == LAYER_TYPE_SOFTWARE) {
+            // hardware bitmaps can't be drawn on a software canvas
+            config = null;
+        }
         BitmapLoadUtils.decodeBitmapInBackground(getContext(), imageUri, outputUri, maxBitmapSize, maxBitmapSize,
-                new BitmapLoadCallback() {
+                config, new BitmapLoadCallback() {
 
                     @Override
                     public void onBitmapLoaded(@NonNull Bitmap bitmap, @NonNull ExifInfo exifInfo, @NonNull Uri imageInputUri, @Nullable Uri imageOutputUri) {
@@ -233,7 +261,12 @@ public class TransformImageView extends AppCompatImageView {
         mExifInfo = exifInfo;
 
         mBitmapDecoded = true;
+        Bitmap previousBitmap = getViewBitmap();
         setImageBitmap(bitmap);
+        if (previousBitmap != bitmap) {
+            // deferred by the pool while a running BitmapCropTask still holds it
+            BitmapPool.getInstance().put(previousBitmap);
+        }
     }
 
     /**